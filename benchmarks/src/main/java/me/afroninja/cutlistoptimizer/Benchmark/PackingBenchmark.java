@@ -0,0 +1,54 @@
+package me.afroninja.cutlistoptimizer.Benchmark;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Optimization.PackingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single strategy on one synthetic job. Throughput gives jobs per second, sample time gives the
+ * latency percentiles, and the GC profiler added by {@link BenchmarkRunner} gives the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackingBenchmark {
+    @Param({PackingEngine.FFDH, PackingEngine.BFDH, PackingEngine.GUILLOTINE})
+    public String strategy;
+
+    @Param({"UNIFORM", "HEAVY_TAILED", "MANY_IDENTICAL"})
+    public WorkloadGenerator.Distribution distribution;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int panelCount;
+
+    private PackingEngine engine;
+    private OptimizationJob job;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new PackingEngine();
+        job = WorkloadGenerator.generate(distribution, panelCount, 42L);
+    }
+
+    @Benchmark
+    public OptimizationResult pack() {
+        return engine.run(strategy, job);
+    }
+}
@@ -0,0 +1,79 @@
+package me.afroninja.cutlistoptimizer.Benchmark;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic jobs for the benchmarks. Every job mixes three common stock sizes, with enough
+ * sheets in each size to hold all panels, so the measured time is packing and not running out of stock.
+ */
+public final class WorkloadGenerator {
+    public enum Distribution {
+        /** Lengths and widths drawn uniformly from a cabinet-part range. */
+        UNIFORM,
+        /** Pareto-distributed sizes: mostly small offcuts with a long tail of large panels. */
+        HEAVY_TAILED,
+        /** A handful of part types repeated many times, as in production runs. */
+        MANY_IDENTICAL
+    }
+
+    private static final double[][] STOCK_SIZES = {{244, 122}, {305, 153}, {183, 91}};
+    private static final double MIN_SIDE = 5.0;
+    private static final double MAX_LENGTH = 180.0;
+    private static final double MAX_WIDTH = 90.0;
+    private static final int IDENTICAL_TYPES = 6;
+
+    private WorkloadGenerator() { }
+
+    public static OptimizationJob generate(Distribution distribution, int panelCount, long seed) {
+        Random random = new Random(seed);
+        List<Panel> panels = new ArrayList<>();
+        switch (distribution) {
+            case UNIFORM:
+                for (int i = 0; i < panelCount; i++) {
+                    panels.add(new Panel(uniform(random, MIN_SIDE, MAX_LENGTH), uniform(random, MIN_SIDE, MAX_WIDTH), 1, "U" + i));
+                }
+                break;
+            case HEAVY_TAILED:
+                for (int i = 0; i < panelCount; i++) {
+                    panels.add(new Panel(pareto(random, MAX_LENGTH), pareto(random, MAX_WIDTH), 1, "H" + i));
+                }
+                break;
+            case MANY_IDENTICAL:
+                int perType = panelCount / IDENTICAL_TYPES;
+                for (int i = 0; i < IDENTICAL_TYPES; i++) {
+                    int quantity = i == 0 ? panelCount - perType * (IDENTICAL_TYPES - 1) : perType;
+                    panels.add(new Panel(uniform(random, 20, MAX_LENGTH), uniform(random, 10, MAX_WIDTH), quantity, "T" + i));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        }
+
+        double panelArea = 0.0;
+        for (Panel panel : panels) {
+            panelArea += panel.getLength() * panel.getWidth() * panel.getQuantity();
+        }
+        List<StockSheet> stock = new ArrayList<>();
+        for (int i = 0; i < STOCK_SIZES.length; i++) {
+            double sheetArea = STOCK_SIZES[i][0] * STOCK_SIZES[i][1];
+            int quantity = (int) Math.ceil(panelArea * 2.0 / sheetArea) + 1;
+            stock.add(new StockSheet(STOCK_SIZES[i][0], STOCK_SIZES[i][1], quantity, "S" + i));
+        }
+        return new OptimizationJob(panels, stock, 0.13, List.of());
+    }
+
+    private static double uniform(Random random, double min, double max) {
+        return Math.round((min + random.nextDouble() * (max - min)) * 10.0) / 10.0;
+    }
+
+    private static double pareto(Random random, double max) {
+        double value = MIN_SIDE / Math.pow(1.0 - random.nextDouble(), 1.0 / 1.5);
+        return Math.round(Math.min(value, max) * 10.0) / 10.0;
+    }
+}
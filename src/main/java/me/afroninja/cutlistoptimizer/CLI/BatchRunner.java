@@ -0,0 +1,306 @@
+package me.afroninja.cutlistoptimizer.CLI;
+
+import me.afroninja.cutlistoptimizer.IO.JobFormat;
+import me.afroninja.cutlistoptimizer.IO.ResultCodec;
+import me.afroninja.cutlistoptimizer.IO.ResultJson;
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.SearchBudget;
+import me.afroninja.cutlistoptimizer.Optimization.PackingEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch mode: packs every job file it is given and writes one {@code <file>.result.json} (or, in
+ * binary, {@code <file>.clresult}, see {@link ResultCodec}) per job plus a {@code summary.csv} to the output
+ * directory, then prints throughput, latency percentiles and waste. Results are named after the whole job file
+ * name, so {@code a.json} and {@code a.csv} do not overwrite each other; a second job file of the same name,
+ * from another directory, fails instead.
+ * Nothing here touches JavaFX, so it runs on machines without a display:
+ * <pre>
+ * java -cp cutlistoptimizer.jar me.afroninja.cutlistoptimizer.CLI.BatchRunner [options] (dir | file | -)...
+ *   --out DIR             where results go (default: results)
+ *   --threads N           jobs packed at once (default: one per core)
+ *   --kerf K              cut thickness for jobs that do not give one (default: 0)
+ *   --algorithms A,B      strategies for jobs that do not name any (default: the engine's portfolio)
+ *   --search-seconds S    search budget for jobs that do not give one (default: none)
+ *   --stdin-format F      json or csv, for a job read from {@code -} (default: json)
+ *   --result-format F     json or binary (default: json)
+ * </pre>
+ * Directories are read for {@code .json}, {@code .csv} and binary {@code .cljob} files, not recursively. Jobs are handed to a fixed
+ * pool of workers through a short queue, so file reading never runs far ahead of packing. The exit status is
+ * 1 if any job failed and 2 on bad arguments.
+ */
+public final class BatchRunner {
+    private static final String STDIN = "-";
+
+    private Path outputDirectory = Paths.get("results");
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private double cutThickness;
+    private List<String> algorithms = List.of();
+    private SearchBudget searchBudget = SearchBudget.NONE;
+    private boolean stdinCsv;
+    private boolean binaryResults;
+    private final List<String> inputs = new ArrayList<>();
+
+    private BatchRunner() { }
+
+    public static void main(String[] args) {
+        BatchRunner runner = new BatchRunner();
+        try {
+            runner.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+        try {
+            System.exit(runner.run(System.out) ? 0 : 1);
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                inputs.add(arg);
+                continue;
+            }
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+            String value = args[++i];
+            try {
+                switch (arg) {
+                    case "--out": outputDirectory = Paths.get(value); break;
+                    case "--threads": threads = Math.max(1, Integer.parseInt(value)); break;
+                    case "--kerf": cutThickness = Double.parseDouble(value); break;
+                    case "--algorithms": algorithms = Arrays.asList(value.split(",")); break;
+                    case "--search-seconds": searchBudget = SearchBudget.ofSeconds(Double.parseDouble(value)); break;
+                    case "--stdin-format": stdinCsv = value.equalsIgnoreCase("csv"); break;
+                    case "--result-format": binaryResults = value.equalsIgnoreCase("binary"); break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for " + arg + ": " + value);
+            }
+        }
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("Usage: BatchRunner [--out DIR] [--threads N] [--kerf K] [--algorithms A,B] "
+                    + "[--search-seconds S] [--stdin-format json|csv] [--result-format json|binary] (dir | file | -)...");
+        }
+    }
+
+    /**
+     * Packs every input and reports on {@code out}; returns whether all jobs succeeded.
+     */
+    private boolean run(PrintStream out) throws IOException {
+        Files.createDirectories(outputDirectory);
+        JobFormat format = new JobFormat(cutThickness, algorithms, searchBudget);
+        PackingEngine engine = new PackingEngine();
+        List<JobOutcome> outcomes = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        long started = System.nanoTime();
+        try {
+            for (String input : inputs) {
+                if (input.equals(STDIN)) {
+                    // Read on this thread: stdin is consumed once, before the job is queued
+                    OptimizationJob job;
+                    try {
+                        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                        job = stdinCsv ? format.readCsv(reader) : format.readJson(reader);
+                    } catch (IOException e) {
+                        synchronized (outcomes) {
+                            outcomes.add(JobOutcome.failed("stdin", 0, e));
+                        }
+                        continue;
+                    }
+                    names.add("stdin");
+                    workers.execute(() -> record(outcomes, pack("stdin", engine, () -> job)));
+                    continue;
+                }
+                for (Path file : jobFiles(Paths.get(input))) {
+                    String name = file.getFileName().toString();
+                    if (!names.add(name)) {
+                        synchronized (outcomes) {
+                            outcomes.add(JobOutcome.failed(name, 0, new IOException(
+                                    "Another job file is named " + name + "; skipped " + file)));
+                        }
+                        continue;
+                    }
+                    workers.execute(() -> record(outcomes, pack(name, engine, () -> format.read(file))));
+                }
+            }
+        } finally {
+            workers.shutdown();
+        }
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        outcomes.sort(Comparator.comparing((JobOutcome outcome) -> outcome.name));
+        writeSummary(outcomes);
+        return report(outcomes, elapsedNanos, out);
+    }
+
+    private static List<Path> jobFiles(Path input) throws IOException {
+        if (!Files.isDirectory(input)) return List.of(input);
+        try (Stream<Path> files = Files.list(input)) {
+            List<Path> jobs = new ArrayList<>();
+            files.filter(Files::isRegularFile).sorted().forEach(file -> {
+                String name = file.getFileName().toString().toLowerCase();
+                if (name.endsWith(".json") || name.endsWith(".csv") || name.endsWith(".cljob")) jobs.add(file);
+            });
+            return jobs;
+        }
+    }
+
+    private interface JobSource {
+        OptimizationJob load() throws IOException;
+    }
+
+    /**
+     * Loads, packs and writes one job; the latency covers all three.
+     */
+    private JobOutcome pack(String name, PackingEngine engine, JobSource source) {
+        long started = System.nanoTime();
+        try {
+            OptimizationResult result = engine.optimize(source.load());
+            if (binaryResults) {
+                Path target = outputDirectory.resolve(name + ".clresult");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+                    ResultCodec.write(result, out);
+                }
+            } else {
+                Path target = outputDirectory.resolve(name + ".result.json");
+                try (Writer writer = new BufferedWriter(Files.newBufferedWriter(target, StandardCharsets.UTF_8))) {
+                    ResultJson.write(result, writer);
+                }
+            }
+            int unplaced = 0;
+            for (Panel panel : result.getUnplacedPanels()) {
+                unplaced += panel.getQuantity();
+            }
+            return new JobOutcome(name, System.nanoTime() - started, null, result.getWastePercentage(),
+                    result.getUsedArea(), result.getTotalArea(), result.getUsedSheets().size(), unplaced);
+        } catch (IOException | RuntimeException e) {
+            return JobOutcome.failed(name, System.nanoTime() - started, e);
+        }
+    }
+
+    private static void record(List<JobOutcome> outcomes, JobOutcome outcome) {
+        synchronized (outcomes) {
+            outcomes.add(outcome);
+        }
+    }
+
+    private void writeSummary(List<JobOutcome> outcomes) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(outputDirectory.resolve("summary.csv"), StandardCharsets.UTF_8)) {
+            writer.write("job,status,millis,waste,sheets,unplaced,error\n");
+            for (JobOutcome outcome : outcomes) {
+                writer.write(String.format("%s,%s,%.1f,%.3f,%d,%d,%s%n", outcome.name, outcome.error == null ? "ok" : "failed",
+                        outcome.nanos / 1e6, outcome.waste, outcome.sheets, outcome.unplaced,
+                        outcome.error == null ? "" : outcome.error.replace(',', ';').replace('\n', ' ')));
+            }
+        }
+    }
+
+    private static boolean report(List<JobOutcome> outcomes, long elapsedNanos, PrintStream out) {
+        List<Long> latencies = new ArrayList<>();
+        double wasteSum = 0.0;
+        double usedArea = 0.0;
+        double totalArea = 0.0;
+        int failed = 0;
+        for (JobOutcome outcome : outcomes) {
+            if (outcome.error != null) {
+                failed++;
+                continue;
+            }
+            latencies.add(outcome.nanos);
+            wasteSum += outcome.waste;
+            usedArea += outcome.usedArea;
+            totalArea += outcome.totalArea;
+        }
+        latencies.sort(null);
+        int succeeded = latencies.size();
+        double seconds = elapsedNanos / 1e9;
+
+        out.printf("Jobs: %d (%d failed)%n", outcomes.size(), failed);
+        out.printf("Elapsed: %.2f s, %.1f jobs/s%n", seconds, seconds > 0 ? outcomes.size() / seconds : 0.0);
+        if (succeeded > 0) {
+            out.printf("Latency: p50 %.1f ms, p99 %.1f ms, max %.1f ms%n", percentile(latencies, 50) / 1e6,
+                    percentile(latencies, 99) / 1e6, latencies.get(succeeded - 1) / 1e6);
+            out.printf("Waste: mean %.2f%%, overall %.2f%%%n", wasteSum / succeeded,
+                    totalArea > 0 ? (totalArea - usedArea) / totalArea * 100 : 0.0);
+        }
+        for (JobOutcome outcome : outcomes) {
+            if (outcome.error != null) out.println("Failed " + outcome.name + ": " + outcome.error);
+        }
+        return failed == 0;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values.
+     */
+    private static long percentile(List<Long> sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1);
+    }
+
+    private static final class JobOutcome {
+        final String name;
+        final long nanos;
+        final String error;
+        final double waste;
+        final double usedArea;
+        final double totalArea;
+        final int sheets;
+        final int unplaced;
+
+        JobOutcome(String name, long nanos, String error, double waste, double usedArea, double totalArea, int sheets,
+                   int unplaced) {
+            this.name = name;
+            this.nanos = nanos;
+            this.error = error;
+            this.waste = waste;
+            this.usedArea = usedArea;
+            this.totalArea = totalArea;
+            this.sheets = sheets;
+            this.unplaced = unplaced;
+        }
+
+        static JobOutcome failed(String name, long nanos, Exception e) {
+            String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            return new JobOutcome(name, nanos, message, 0.0, 0.0, 0.0, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package me.afroninja.cutlistoptimizer.IO;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.SearchBudget;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned binary encoding of an {@link OptimizationJob}, for jobs too large to parse as text:
+ * <pre>
+ * magic, version, kerf, algorithm names, search budget (time, iterations, starts),
+ * panels   n, length[n] width[n] (double), quantity[n] (int), label[n]
+ * stock    m, length[m] width[m] (double), quantity[m] (int), cost[m] (double), label[m]
+ * </pre>
+ * Big-endian, with labels as in {@link ResultCodec}. {@link #map} bulk-copies the size and quantity columns
+ * out of a memory-mapped file, so the only objects made are the panel and stock rows the job holds. Version 1
+ * files, which have no stock costs, are still read.
+ */
+public final class JobCodec {
+    private static final int MAGIC = 0x434C4A42; // "CLJB"
+    private static final int VERSION = 2;
+
+    private JobCodec() { }
+
+    public static void write(OptimizationJob job, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeDouble(job.getCutThickness());
+        out.writeInt(job.getAlgorithms().size());
+        for (String name : job.getAlgorithms()) {
+            ResultCodec.writeLabel(name, out);
+        }
+        SearchBudget budget = job.getSearchBudget();
+        out.writeLong(budget.getTimeMillis());
+        out.writeLong(budget.getIterations());
+        out.writeInt(budget.getStarts());
+
+        List<Panel> panels = job.getPanels();
+        out.writeInt(panels.size());
+        for (Panel panel : panels) out.writeDouble(panel.getLength());
+        for (Panel panel : panels) out.writeDouble(panel.getWidth());
+        for (Panel panel : panels) out.writeInt(panel.getQuantity());
+        for (Panel panel : panels) ResultCodec.writeLabel(panel.getLabel(), out);
+
+        List<StockSheet> stock = job.getStockSheets();
+        out.writeInt(stock.size());
+        for (StockSheet sheet : stock) out.writeDouble(sheet.getLength());
+        for (StockSheet sheet : stock) out.writeDouble(sheet.getWidth());
+        for (StockSheet sheet : stock) out.writeInt(sheet.getQuantity());
+        for (StockSheet sheet : stock) out.writeDouble(sheet.getCost());
+        for (StockSheet sheet : stock) ResultCodec.writeLabel(sheet.getLabel(), out);
+        out.flush();
+    }
+
+    /**
+     * Reads a job file through a read-only mapping of it.
+     */
+    public static OptimizationJob map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static OptimizationJob decode(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) throw new IOException("Not a job file");
+            int version = buffer.getInt();
+            if (version != VERSION && version != 1) throw new IOException("Unsupported job version " + version);
+            double kerf = buffer.getDouble();
+            int algorithmCount = count(buffer, Integer.BYTES);
+            List<String> algorithms = new ArrayList<>(algorithmCount);
+            for (int i = 0; i < algorithmCount; i++) {
+                algorithms.add(ResultCodec.readLabel(buffer));
+            }
+            SearchBudget budget = new SearchBudget(buffer.getLong(), buffer.getLong(), buffer.getInt());
+
+            int panelCount = count(buffer, 2 * Double.BYTES + 2 * Integer.BYTES);
+            double[] length = doubles(buffer, panelCount);
+            double[] width = doubles(buffer, panelCount);
+            int[] quantity = ints(buffer, panelCount);
+            List<Panel> panels = new ArrayList<>(panelCount);
+            for (int i = 0; i < panelCount; i++) {
+                panels.add(new Panel(length[i], width[i], quantity[i], ResultCodec.readLabel(buffer)));
+            }
+
+            int costBytes = version == 1 ? 0 : Double.BYTES;
+            int stockCount = count(buffer, 2 * Double.BYTES + 2 * Integer.BYTES + costBytes);
+            length = doubles(buffer, stockCount);
+            width = doubles(buffer, stockCount);
+            quantity = ints(buffer, stockCount);
+            double[] cost = version == 1 ? new double[stockCount] : doubles(buffer, stockCount);
+            List<StockSheet> stock = new ArrayList<>(stockCount);
+            for (int i = 0; i < stockCount; i++) {
+                stock.add(new StockSheet(length[i], width[i], quantity[i], ResultCodec.readLabel(buffer), cost[i]));
+            }
+            return new OptimizationJob(panels, stock, kerf, algorithms, budget);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt job", e);
+        }
+    }
+
+    /**
+     * A row count, checked against the bytes left for rows of at least {@code minRowBytes} each.
+     */
+    private static int count(ByteBuffer buffer, int minRowBytes) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / minRowBytes) throw new IOException("Bad row count " + count);
+        return count;
+    }
+
+    private static double[] doubles(ByteBuffer buffer, int count) {
+        double[] column = new double[count];
+        buffer.asDoubleBuffer().get(column);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        return column;
+    }
+
+    private static int[] ints(ByteBuffer buffer, int count) {
+        int[] column = new int[count];
+        buffer.asIntBuffer().get(column);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return column;
+    }
+}
@@ -0,0 +1,183 @@
+package me.afroninja.cutlistoptimizer.IO;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.SearchBudget;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads job files for the headless entry points. A JSON job is an object
+ * <pre>
+ * {"cutThickness": 0.125,
+ *  "panels": [{"length": 24, "width": 12, "quantity": 4, "label": "Shelf"}],
+ *  "stock":  [{"length": 96, "width": 48, "quantity": 10, "label": "Plywood", "cost": 54.0}],
+ *  "algorithms": ["FFDH"],
+ *  "search": {"timeMillis": 2000, "iterations": 0, "starts": 16}}
+ * </pre>
+ * and a CSV job has one row per line, {@code panel,length,width,quantity,label} or
+ * {@code stock,length,width,quantity,label}, plus an optional {@code kerf,value} row. Blank lines, lines
+ * starting with {@code #} and a {@code type,...} header are skipped. Kerf, algorithms and search budget fall
+ * back to the format's defaults when a file does not give them. A stock sheet's cost is optional and only read
+ * from JSON, since a CSV label runs to the end of its row.
+ */
+public final class JobFormat {
+    public static final JobFormat DEFAULT = new JobFormat(0.0, List.of(), SearchBudget.NONE);
+
+    private final double cutThickness;
+    private final List<String> algorithms;
+    private final SearchBudget searchBudget;
+
+    public JobFormat(double cutThickness, List<String> algorithms, SearchBudget searchBudget) {
+        this.cutThickness = cutThickness;
+        this.algorithms = List.copyOf(algorithms);
+        this.searchBudget = searchBudget;
+    }
+
+    /**
+     * Reads a {@code .cljob} file with {@link JobCodec}, which brings its own kerf, algorithms and budget, a
+     * {@code .csv} file as CSV and anything else as JSON.
+     */
+    public OptimizationJob read(Path file) throws IOException {
+        if (isBinary(file)) return JobCodec.map(file);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return isCsv(file) ? readCsv(reader) : readJson(reader);
+        }
+    }
+
+    public static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv");
+    }
+
+    public static boolean isBinary(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".cljob");
+    }
+
+    public OptimizationJob readJson(Reader reader) throws IOException {
+        return fromJson(readAll(reader));
+    }
+
+    public OptimizationJob fromJson(String text) throws IOException {
+        Object document = Json.parse(text);
+        if (!(document instanceof Map)) throw new IOException("A job must be a JSON object");
+        Map<?, ?> job = (Map<?, ?>) document;
+
+        List<Panel> panels = new ArrayList<>();
+        for (Map<?, ?> row : objects(job.get("panels"), "panels")) {
+            panels.add(new Panel(number(row, "length"), number(row, "width"), (int) number(row, "quantity"), label(row)));
+        }
+        List<StockSheet> stock = new ArrayList<>();
+        for (Map<?, ?> row : objects(job.get("stock"), "stock")) {
+            stock.add(new StockSheet(number(row, "length"), number(row, "width"), (int) number(row, "quantity"), label(row),
+                    optionalNumber(row, "cost")));
+        }
+
+        double kerf = job.containsKey("cutThickness") ? number(job, "cutThickness") : cutThickness;
+        List<String> names = algorithms;
+        if (job.get("algorithms") instanceof List) {
+            names = new ArrayList<>();
+            for (Object name : (List<?>) job.get("algorithms")) {
+                if (!(name instanceof String)) throw new IOException("Algorithm names must be strings");
+                names.add((String) name);
+            }
+        }
+        SearchBudget budget = searchBudget;
+        if (job.get("search") instanceof Map) {
+            Map<?, ?> search = (Map<?, ?>) job.get("search");
+            try {
+                budget = new SearchBudget((long) optionalNumber(search, "timeMillis"), (long) optionalNumber(search, "iterations"),
+                        (int) optionalNumber(search, "starts"));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        return new OptimizationJob(panels, stock, kerf, names, budget);
+    }
+
+    public OptimizationJob readCsv(Reader reader) throws IOException {
+        List<Panel> panels = new ArrayList<>();
+        List<StockSheet> stock = new ArrayList<>();
+        double kerf = cutThickness;
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] fields = line.split(",", 5);
+            String type = fields[0].trim().toLowerCase();
+            try {
+                switch (type) {
+                    case "type":
+                        break;
+                    case "kerf":
+                        kerf = Double.parseDouble(fields[1].trim());
+                        break;
+                    case "panel":
+                    case "stock":
+                        double length = Double.parseDouble(fields[1].trim());
+                        double width = Double.parseDouble(fields[2].trim());
+                        int quantity = Integer.parseInt(fields[3].trim());
+                        String label = fields.length > 4 ? fields[4].trim() : "";
+                        if (type.equals("panel")) {
+                            panels.add(new Panel(length, width, quantity, label));
+                        } else {
+                            stock.add(new StockSheet(length, width, quantity, label));
+                        }
+                        break;
+                    default:
+                        throw new IOException("Unknown row type '" + fields[0] + "' on line " + lineNumber);
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Malformed row on line " + lineNumber + ": " + line, e);
+            }
+        }
+        return new OptimizationJob(panels, stock, kerf, algorithms, searchBudget);
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            text.append(buffer, 0, read);
+        }
+        return text.toString();
+    }
+
+    private static List<Map<?, ?>> objects(Object value, String name) throws IOException {
+        if (value == null) return List.of();
+        if (!(value instanceof List)) throw new IOException("'" + name + "' must be an array");
+        List<Map<?, ?>> rows = new ArrayList<>();
+        for (Object row : (List<?>) value) {
+            if (!(row instanceof Map)) throw new IOException("Each entry of '" + name + "' must be an object");
+            rows.add((Map<?, ?>) row);
+        }
+        return rows;
+    }
+
+    private static double number(Map<?, ?> object, String key) throws IOException {
+        Object value = object.get(key);
+        if (!(value instanceof Double)) throw new IOException("'" + key + "' must be a number");
+        return (Double) value;
+    }
+
+    private static double optionalNumber(Map<?, ?> object, String key) throws IOException {
+        return object.containsKey(key) ? number(object, key) : 0.0;
+    }
+
+    private static String label(Map<?, ?> row) {
+        Object label = row.get("label");
+        return label == null ? "" : label.toString();
+    }
+}
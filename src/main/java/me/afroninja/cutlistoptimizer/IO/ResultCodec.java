@@ -0,0 +1,288 @@
+package me.afroninja.cutlistoptimizer.IO;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.Rectangle;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned binary encoding of an {@link OptimizationResult}, laid out so it can be written one sheet at a
+ * time and read back without a record object per placement:
+ * <pre>
+ * header   magic, version, panel types
+ * sheet*   SHEET tag, stock sheet, n, x[n] y[n] width[n] height[n] (long micro-units), type[n] (int),
+ *          rotated[n] (byte), f, free x[f] y[f] width[f] height[f] (double)
+ * trailer  END tag, used area, total area, cuts, waste, proven optimal (byte), lower bound area,
+ *          unplaced panels
+ * </pre>
+ * Everything is big-endian, placements are sheet-local, and a sheet's index is its position in the file.
+ * {@link #map} reads a file through a memory-mapped channel and bulk-copies each column straight into the
+ * arrays of a {@link PlacementStore}. Per-algorithm custom data is not part of the encoding.
+ */
+public final class ResultCodec {
+    private static final int MAGIC = 0x434C5252; // "CLRR"
+    private static final int VERSION = 6;
+    private static final byte SHEET = 1;
+    private static final byte END = 0;
+
+    private ResultCodec() { }
+
+    public static void write(OptimizationResult result, DataOutputStream out) throws IOException {
+        PlacementStore placements = result.getPlacements();
+        List<StockSheet> sheets = result.getUsedSheets();
+        // Counting sort of the placements by sheet, since packers may fill several sheets at once
+        int[] start = new int[sheets.size() + 1];
+        for (int i = 0; i < placements.size(); i++) {
+            start[placements.getSheet(i) + 1]++;
+        }
+        for (int sheet = 0; sheet < sheets.size(); sheet++) {
+            start[sheet + 1] += start[sheet];
+        }
+        int[] next = start.clone();
+        int[] bySheet = new int[placements.size()];
+        for (int i = 0; i < placements.size(); i++) {
+            bySheet[next[placements.getSheet(i)]++] = i;
+        }
+        List<List<Rectangle>> freeBySheet = new ArrayList<>(sheets.size());
+        for (int sheet = 0; sheet < sheets.size(); sheet++) {
+            freeBySheet.add(new ArrayList<>());
+        }
+        for (Rectangle free : result.getRectangles()) {
+            freeBySheet.get(free.getSheet()).add(free);
+        }
+
+        Writer writer = new Writer(out, placements.getPanelTypes());
+        for (int sheet = 0; sheet < sheets.size(); sheet++) {
+            writer.writeSheet(sheets.get(sheet), placements, bySheet, start[sheet], start[sheet + 1], freeBySheet.get(sheet));
+        }
+        writer.finish(result);
+    }
+
+    public static OptimizationResult read(DataInputStream in) throws IOException {
+        return decode(ByteBuffer.wrap(in.readAllBytes()));
+    }
+
+    /**
+     * Reads a result file through a read-only mapping of it.
+     */
+    public static OptimizationResult map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Streaming writer: the header goes out on construction, then one {@link #writeSheet} per used sheet in
+     * order, then {@link #finish}. Only the sheet being written has to be in memory.
+     */
+    public static final class Writer {
+        private final DataOutputStream out;
+        private final int typeCount;
+        private boolean finished;
+
+        public Writer(DataOutputStream out, List<Panel> panelTypes) throws IOException {
+            this.out = out;
+            this.typeCount = panelTypes.size();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writePanels(panelTypes, out);
+        }
+
+        /**
+         * Writes the next sheet: its stock, the placements {@code indices[from..to)} of {@code placements},
+         * and its free rectangles.
+         */
+        public void writeSheet(StockSheet stock, PlacementStore placements, int[] indices, int from, int to,
+                               List<Rectangle> free) throws IOException {
+            if (finished) throw new IllegalStateException("Result already finished");
+            out.writeByte(SHEET);
+            writeStock(stock, out);
+            out.writeInt(to - from);
+            for (int k = from; k < to; k++) out.writeLong(placements.getXMicros(indices[k]));
+            for (int k = from; k < to; k++) out.writeLong(placements.getYMicros(indices[k]));
+            for (int k = from; k < to; k++) out.writeLong(placements.getWidthMicros(indices[k]));
+            for (int k = from; k < to; k++) out.writeLong(placements.getHeightMicros(indices[k]));
+            for (int k = from; k < to; k++) {
+                int type = placements.getPanelType(indices[k]);
+                if (type >= typeCount) throw new IllegalArgumentException("Panel type " + type + " not in the header");
+                out.writeInt(type);
+            }
+            for (int k = from; k < to; k++) out.writeByte(placements.isRotated(indices[k]) ? 1 : 0);
+            out.writeInt(free.size());
+            for (Rectangle rect : free) out.writeDouble(rect.getX());
+            for (Rectangle rect : free) out.writeDouble(rect.getY());
+            for (Rectangle rect : free) out.writeDouble(rect.getWidth());
+            for (Rectangle rect : free) out.writeDouble(rect.getHeight());
+        }
+
+        /**
+         * Writes the totals and unplaced panels of {@code result}; its placements are not looked at.
+         */
+        public void finish(OptimizationResult result) throws IOException {
+            if (finished) throw new IllegalStateException("Result already finished");
+            finished = true;
+            out.writeByte(END);
+            out.writeDouble(result.getUsedArea());
+            out.writeDouble(result.getTotalArea());
+            out.writeInt(result.getTotalCuts());
+            out.writeDouble(result.getWastePercentage());
+            out.writeByte(result.isProvenOptimal() ? 1 : 0);
+            out.writeDouble(result.getLowerBoundArea());
+            writePanels(result.getUnplacedPanels(), out);
+            out.flush();
+        }
+    }
+
+    static OptimizationResult decode(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) throw new IOException("Not an optimization result");
+            int version = buffer.getInt();
+            if (version != VERSION) throw new IOException("Unsupported result version " + version);
+            List<Panel> panelTypes = readPanels(buffer);
+
+            // First pass only sizes the columns, skipping over the sheet bodies
+            int sheetsStart = buffer.position();
+            int placementCount = 0;
+            while (buffer.get() == SHEET) {
+                skipStock(buffer);
+                int n = buffer.getInt();
+                if (n < 0 || n > buffer.remaining() / (4 * Long.BYTES + Integer.BYTES + 1)) throw new IOException("Bad placement count");
+                placementCount += n;
+                buffer.position(buffer.position() + n * (4 * Long.BYTES + Integer.BYTES + 1));
+                int f = buffer.getInt();
+                if (f < 0 || f > buffer.remaining() / (4 * Double.BYTES)) throw new IOException("Bad free rectangle count");
+                buffer.position(buffer.position() + f * 4 * Double.BYTES);
+            }
+
+            OptimizationResult result = new OptimizationResult();
+            long[] x = new long[placementCount];
+            long[] y = new long[placementCount];
+            long[] width = new long[placementCount];
+            long[] height = new long[placementCount];
+            int[] sheet = new int[placementCount];
+            int[] type = new int[placementCount];
+            boolean[] rotated = new boolean[placementCount];
+            byte[] rotatedBytes = new byte[0];
+            double[] free = new double[0];
+
+            buffer.position(sheetsStart);
+            int filled = 0;
+            int sheetIndex = 0;
+            while (buffer.get() == SHEET) {
+                result.getUsedSheets().add(readStock(buffer));
+                int n = buffer.getInt();
+                getLongs(buffer, x, filled, n);
+                getLongs(buffer, y, filled, n);
+                getLongs(buffer, width, filled, n);
+                getLongs(buffer, height, filled, n);
+                buffer.asIntBuffer().get(type, filled, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                if (rotatedBytes.length < n) rotatedBytes = new byte[n];
+                buffer.get(rotatedBytes, 0, n);
+                for (int i = 0; i < n; i++) {
+                    sheet[filled + i] = sheetIndex;
+                    rotated[filled + i] = rotatedBytes[i] != 0;
+                    if (type[filled + i] < 0 || type[filled + i] >= panelTypes.size()) throw new IOException("Bad panel type");
+                }
+                filled += n;
+
+                int f = buffer.getInt();
+                if (free.length < 4 * f) free = new double[4 * f];
+                buffer.asDoubleBuffer().get(free, 0, 4 * f);
+                buffer.position(buffer.position() + 4 * f * Double.BYTES);
+                for (int i = 0; i < f; i++) {
+                    result.getRectangles().add(new Rectangle(free[i], free[f + i], free[2 * f + i], free[3 * f + i], sheetIndex));
+                }
+                sheetIndex++;
+            }
+
+            result.setPlacements(new PlacementStore(panelTypes, x, y, width, height, sheet, type, rotated, placementCount));
+            result.setUsedArea(buffer.getDouble());
+            result.setTotalArea(buffer.getDouble());
+            result.setTotalCuts(buffer.getInt());
+            result.setWastePercentage(buffer.getDouble());
+            result.setProvenOptimal(buffer.get() != 0);
+            result.setLowerBoundArea(buffer.getDouble());
+            result.getUnplacedPanels().addAll(readPanels(buffer));
+            return result;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt result", e);
+        }
+    }
+
+    private static void getLongs(ByteBuffer buffer, long[] column, int offset, int count) {
+        buffer.asLongBuffer().get(column, offset, count);
+        buffer.position(buffer.position() + count * Long.BYTES);
+    }
+
+    static void writePanels(List<Panel> panels, DataOutputStream out) throws IOException {
+        out.writeInt(panels.size());
+        for (Panel panel : panels) {
+            out.writeDouble(panel.getLength());
+            out.writeDouble(panel.getWidth());
+            out.writeInt(panel.getQuantity());
+            writeLabel(panel.getLabel(), out);
+        }
+    }
+
+    static List<Panel> readPanels(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<Panel> panels = new ArrayList<>(Math.min(count, buffer.remaining() / 20));
+        for (int i = 0; i < count; i++) {
+            panels.add(new Panel(buffer.getDouble(), buffer.getDouble(), buffer.getInt(), readLabel(buffer)));
+        }
+        return panels;
+    }
+
+    static void writeStock(StockSheet sheet, DataOutputStream out) throws IOException {
+        out.writeDouble(sheet.getLength());
+        out.writeDouble(sheet.getWidth());
+        out.writeInt(sheet.getQuantity());
+        out.writeDouble(sheet.getCost());
+        writeLabel(sheet.getLabel(), out);
+    }
+
+    static StockSheet readStock(ByteBuffer buffer) {
+        double length = buffer.getDouble();
+        double width = buffer.getDouble();
+        int quantity = buffer.getInt();
+        double cost = buffer.getDouble();
+        return new StockSheet(length, width, quantity, readLabel(buffer), cost);
+    }
+
+    private static void skipStock(ByteBuffer buffer) {
+        buffer.position(buffer.position() + 3 * Double.BYTES + Integer.BYTES);
+        int length = buffer.getInt();
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Labels are a byte count and UTF-8, which a mapped buffer can decode without a stream around it.
+     */
+    static void writeLabel(String label, DataOutputStream out) throws IOException {
+        byte[] bytes = (label == null ? "" : label).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readLabel(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) throw new IllegalArgumentException("Bad label length");
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+package me.afroninja.cutlistoptimizer.IO;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import me.afroninja.cutlistoptimizer.Model.StrategyMetrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes an {@link OptimizationResult} as a JSON document for the headless entry points: the totals, each
+ * used sheet with its placements in sheet-local input units, the unplaced panels, and the waste and
+ * {@link StrategyMetrics} of every strategy that ran. Placements are streamed sheet by sheet rather than
+ * built up as one string.
+ */
+public final class ResultJson {
+    private ResultJson() { }
+
+    public static void write(OptimizationResult result, Writer out) throws IOException {
+        out.write("{\"wastePercentage\":" + Json.number(result.getWastePercentage()));
+        out.write(",\"usedArea\":" + Json.number(result.getUsedArea()));
+        out.write(",\"totalArea\":" + Json.number(result.getTotalArea()));
+        out.write(",\"lowerBoundArea\":" + Json.number(result.getLowerBoundArea()));
+        out.write(",\"totalCuts\":" + result.getTotalCuts());
+        out.write(",\"provenOptimal\":" + result.isProvenOptimal());
+        double totalCost = 0.0;
+        for (StockSheet sheet : result.getUsedSheets()) {
+            totalCost += sheet.getCost();
+        }
+        out.write(",\"totalCost\":" + Json.number(totalCost));
+
+        PlacementStore placements = result.getPlacements();
+        List<StockSheet> sheets = result.getUsedSheets();
+        // Placements are appended sheet by sheet, but not necessarily in sheet order, so index them first
+        int[] start = new int[sheets.size() + 1];
+        for (int i = 0; i < placements.size(); i++) {
+            start[placements.getSheet(i) + 1]++;
+        }
+        for (int sheet = 0; sheet < sheets.size(); sheet++) {
+            start[sheet + 1] += start[sheet];
+        }
+        int[] next = start.clone();
+        int[] bySheet = new int[placements.size()];
+        for (int i = 0; i < placements.size(); i++) {
+            bySheet[next[placements.getSheet(i)]++] = i;
+        }
+
+        out.write(",\"sheets\":[");
+        for (int sheet = 0; sheet < sheets.size(); sheet++) {
+            StockSheet stock = sheets.get(sheet);
+            if (sheet > 0) out.write(',');
+            out.write("{\"length\":" + Json.number(stock.getLength()) + ",\"width\":" + Json.number(stock.getWidth())
+                    + ",\"label\":" + Json.quote(stock.getLabel()) + ",\"cost\":" + Json.number(stock.getCost())
+                    + ",\"placements\":[");
+            for (int k = start[sheet]; k < start[sheet + 1]; k++) {
+                int i = bySheet[k];
+                if (k > start[sheet]) out.write(',');
+                out.write("{\"x\":" + Json.number(placements.getX(i)) + ",\"y\":" + Json.number(placements.getY(i))
+                        + ",\"width\":" + Json.number(placements.getWidth(i)) + ",\"height\":" + Json.number(placements.getHeight(i))
+                        + ",\"rotated\":" + placements.isRotated(i)
+                        + ",\"label\":" + Json.quote(placements.getPanel(i).getLabel()) + "}");
+            }
+            out.write("]}");
+        }
+        out.write("],\"unplaced\":[");
+        List<Panel> unplaced = result.getUnplacedPanels();
+        for (int i = 0; i < unplaced.size(); i++) {
+            Panel panel = unplaced.get(i);
+            if (i > 0) out.write(',');
+            out.write("{\"length\":" + Json.number(panel.getLength()) + ",\"width\":" + Json.number(panel.getWidth())
+                    + ",\"quantity\":" + panel.getQuantity() + ",\"label\":" + Json.quote(panel.getLabel()) + "}");
+        }
+        out.write("]");
+
+        if (result.getCustomData() instanceof Map) {
+            out.write(",\"strategies\":{");
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) result.getCustomData()).entrySet()) {
+                if (!(entry.getValue() instanceof OptimizationResult)) continue;
+                if (!first) out.write(',');
+                first = false;
+                OptimizationResult strategy = (OptimizationResult) entry.getValue();
+                out.write(Json.quote(String.valueOf(entry.getKey())) + ":{\"wastePercentage\":"
+                        + Json.number(strategy.getWastePercentage()) + ",\"sheets\":" + strategy.getUsedSheets().size());
+                StrategyMetrics metrics = strategy.getMetrics();
+                if (metrics != null) {
+                    out.write(",\"wallNanos\":" + metrics.getWallNanos() + ",\"cpuNanos\":" + metrics.getCpuNanos()
+                            + ",\"allocatedBytes\":" + metrics.getAllocatedBytes() + ",\"placements\":" + metrics.getPlacements()
+                            + ",\"peakFreeRectangles\":" + metrics.getPeakFreeRectangles() + ",\"fitTests\":" + metrics.getFitTests());
+                }
+                out.write("}");
+            }
+            out.write("}");
+        }
+        out.write("}");
+    }
+}
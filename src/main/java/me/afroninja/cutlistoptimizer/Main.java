@@ -1,17 +1,18 @@
 package me.afroninja.cutlistoptimizer;
 
 import javafx.application.Application;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.control.ScrollPane;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.util.converter.DoubleStringConverter;
 import javafx.util.converter.IntegerStringConverter;
@@ -21,11 +22,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import me.afroninja.cutlistoptimizer.Model.Panel;
 import me.afroninja.cutlistoptimizer.Model.StockSheet;
 import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.StrategyMetrics;
 import me.afroninja.cutlistoptimizer.Optimization.Optimizer;
+import me.afroninja.cutlistoptimizer.UI.DisplayList;
+import me.afroninja.cutlistoptimizer.UI.LayoutView;
 import me.afroninja.cutlistoptimizer.UI.LoadingOverlay;
 import me.afroninja.cutlistoptimizer.UI.StatisticsUpdater;
 
@@ -33,9 +38,10 @@ public class Main extends Application {
 
     private ObservableList<Panel> panels = FXCollections.observableArrayList();
     private ObservableList<StockSheet> stockSheets = FXCollections.observableArrayList();
-    private Canvas canvas;
+    private LayoutView layoutView;
     private TextArea statistics;
     private TextField thicknessInput;
+    private TextField searchTimeInput;
     private int currentSheetIndex = 0;
 
     private Stage primaryStage;
@@ -44,7 +50,6 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
-        loadingOverlay = new LoadingOverlay(primaryStage);
 
         primaryStage.setTitle("CutList Optimizer");
 
@@ -60,49 +65,53 @@ public class Main extends Application {
         // Panels Table
         TableView<Panel> panelsTable = new TableView<>(panels);
         TableColumn<Panel, Double> lengthCol = new TableColumn<>("Length");
-        lengthCol.setCellValueFactory(cellData -> cellData.getValue().lengthProperty().asObject());
+        lengthCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getLength()));
         lengthCol.setCellFactory(TextFieldTableCell.forTableColumn(customDoubleConverter));
-        lengthCol.setOnEditCommit(event -> event.getTableView().getItems().get(event.getTablePosition().getRow()).setLength(event.getNewValue()));
+        lengthCol.setOnEditCommit(event -> commitEdit(event, Panel::setLength));
 
         TableColumn<Panel, Double> widthCol = new TableColumn<>("Width");
-        widthCol.setCellValueFactory(cellData -> cellData.getValue().widthProperty().asObject());
+        widthCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getWidth()));
         widthCol.setCellFactory(TextFieldTableCell.forTableColumn(customDoubleConverter));
-        widthCol.setOnEditCommit(event -> event.getTableView().getItems().get(event.getTablePosition().getRow()).setWidth(event.getNewValue()));
+        widthCol.setOnEditCommit(event -> commitEdit(event, Panel::setWidth));
 
         TableColumn<Panel, Integer> qtyCol = new TableColumn<>("Qty");
-        qtyCol.setCellValueFactory(cellData -> cellData.getValue().quantityProperty().asObject());
+        qtyCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getQuantity()));
         qtyCol.setCellFactory(TextFieldTableCell.forTableColumn(new IntegerStringConverter()));
-        qtyCol.setOnEditCommit(event -> event.getTableView().getItems().get(event.getTablePosition().getRow()).setQuantity(event.getNewValue()));
+        qtyCol.setOnEditCommit(event -> commitEdit(event, Panel::setQuantity));
 
         TableColumn<Panel, String> labelCol = new TableColumn<>("Label");
-        labelCol.setCellValueFactory(cellData -> cellData.getValue().labelProperty());
+        labelCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getLabel()));
         labelCol.setCellFactory(TextFieldTableCell.forTableColumn());
-        labelCol.setOnEditCommit(event -> event.getTableView().getItems().get(event.getTablePosition().getRow()).setLabel(event.getNewValue()));
+        labelCol.setOnEditCommit(event -> commitEdit(event, Panel::setLabel));
         panelsTable.getColumns().addAll(lengthCol, widthCol, qtyCol, labelCol);
         panelsTable.setEditable(true);
 
         // Stock Sheets Table
         TableView<StockSheet> stockTable = new TableView<>(stockSheets);
         TableColumn<StockSheet, Double> stockLengthCol = new TableColumn<>("Length");
-        stockLengthCol.setCellValueFactory(cellData -> cellData.getValue().lengthProperty().asObject());
+        stockLengthCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getLength()));
         stockLengthCol.setCellFactory(TextFieldTableCell.forTableColumn(customDoubleConverter));
-        stockLengthCol.setOnEditCommit(event -> event.getTableView().getItems().get(event.getTablePosition().getRow()).setLength(event.getNewValue()));
+        stockLengthCol.setOnEditCommit(event -> commitEdit(event, StockSheet::setLength));
 
         TableColumn<StockSheet, Double> stockWidthCol = new TableColumn<>("Width");
-        stockWidthCol.setCellValueFactory(cellData -> cellData.getValue().widthProperty().asObject());
+        stockWidthCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getWidth()));
         stockWidthCol.setCellFactory(TextFieldTableCell.forTableColumn(customDoubleConverter));
-        stockWidthCol.setOnEditCommit(event -> event.getTableView().getItems().get(event.getTablePosition().getRow()).setWidth(event.getNewValue()));
+        stockWidthCol.setOnEditCommit(event -> commitEdit(event, StockSheet::setWidth));
 
         TableColumn<StockSheet, Integer> stockQtyCol = new TableColumn<>("Qty");
-        stockQtyCol.setCellValueFactory(cellData -> cellData.getValue().quantityProperty().asObject());
+        stockQtyCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getQuantity()));
         stockQtyCol.setCellFactory(TextFieldTableCell.forTableColumn(new IntegerStringConverter()));
-        stockQtyCol.setOnEditCommit(event -> event.getTableView().getItems().get(event.getTablePosition().getRow()).setQuantity(event.getNewValue()));
+        stockQtyCol.setOnEditCommit(event -> commitEdit(event, StockSheet::setQuantity));
 
         TableColumn<StockSheet, String> stockLabelCol = new TableColumn<>("Label");
-        stockLabelCol.setCellValueFactory(cellData -> cellData.getValue().labelProperty());
+        stockLabelCol.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getLabel()));
         stockLabelCol.setCellFactory(TextFieldTableCell.forTableColumn());
-        stockLabelCol.setOnEditCommit(event -> event.getTableView().getItems().get(event.getTablePosition().getRow()).setLabel(event.getNewValue()));
-        stockTable.getColumns().addAll(stockLengthCol, stockWidthCol, stockQtyCol, stockLabelCol);
+        stockLabelCol.setOnEditCommit(event -> commitEdit(event, StockSheet::setLabel));
+        TableColumn<StockSheet, Double> stockCostCol = new TableColumn<>("Cost");
+        stockCostCol.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getCost()));
+        stockCostCol.setCellFactory(TextFieldTableCell.forTableColumn(customDoubleConverter));
+        stockCostCol.setOnEditCommit(event -> commitEdit(event, StockSheet::setCost));
+        stockTable.getColumns().addAll(stockLengthCol, stockWidthCol, stockQtyCol, stockLabelCol, stockCostCol);
         stockTable.setEditable(true);
 
         // Buttons for Panels Table
@@ -127,16 +136,20 @@ public class Main extends Application {
         Label cutThicknessLabel = new Label("Cut Thickness");
         thicknessInput = new TextField("0.13");
         HBox cutThicknessBox = new HBox(10, cutThicknessLabel, thicknessInput);
+        Label searchTimeLabel = new Label("Search Time (s)");
+        searchTimeInput = new TextField("2");
+        HBox searchTimeBox = new HBox(10, searchTimeLabel, searchTimeInput);
 
         // Calculate Button
         Button calculateButton = new Button("Calculate");
         calculateButton.setOnAction(e -> optimizeAndDisplay(panelsTable, stockTable));
 
+        // Re-optimize incrementally once a layout exists and the cut list is edited
+        panels.addListener((ListChangeListener<Panel>) change -> reoptimizeAfterEdit());
+        stockSheets.addListener((ListChangeListener<StockSheet>) change -> reoptimizeAfterEdit());
+
         // Output Area
-        canvas = new Canvas();
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        gc.setFill(javafx.scene.paint.Color.WHITE);
-        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        layoutView = new LayoutView();
 
         statistics = new TextArea();
         statistics.setEditable(false);
@@ -148,19 +161,14 @@ public class Main extends Application {
         // Left Side
         VBox leftSide = new VBox(15, new Label("Panels"), panelsButtons, panelsTable,
                 new Label("Stock Sheets"), sheetsButtons, stockTable,
-                new VBox(15, cutThicknessBox),
+                new VBox(15, cutThicknessBox, searchTimeBox),
                 calculateButton);
         leftSide.setPrefWidth(300);
 
         // Center Side
-        ScrollPane scrollPane = new ScrollPane();
-        scrollPane.setFitToWidth(true);
-        scrollPane.setContent(canvas);
         VBox centerSide = new VBox(15);
-        centerSide.getChildren().addAll(new Label("Cutting Pattern"), scrollPane);
-        VBox.setVgrow(scrollPane, Priority.ALWAYS);
-        canvas.widthProperty().bind(centerSide.widthProperty());
-        canvas.heightProperty().bind(centerSide.heightProperty().subtract(50));
+        centerSide.getChildren().addAll(new Label("Cutting Pattern"), layoutView);
+        VBox.setVgrow(layoutView, Priority.ALWAYS);
 
         // Right Side
         VBox rightSide = new VBox(15);
@@ -170,13 +178,13 @@ public class Main extends Application {
         prevSheetButton.setOnAction(e -> {
             if (currentSheetIndex > 0) {
                 currentSheetIndex--;
-                StatisticsUpdater.updateStatistics(statistics, usedSheets, unplacedPanels, currentSheetIndex, panels.size(), usedArea, totalArea, totalCuts);
+                StatisticsUpdater.updateStatistics(statistics, usedSheets, unplacedPanels, currentSheetIndex, panels.size(), usedArea, totalArea, totalCuts, lowerBoundArea, performance);
             }
         });
         nextSheetButton.setOnAction(e -> {
             if (currentSheetIndex < usedSheets.size() - 1) {
                 currentSheetIndex++;
-                StatisticsUpdater.updateStatistics(statistics, usedSheets, unplacedPanels, currentSheetIndex, panels.size(), usedArea, totalArea, totalCuts);
+                StatisticsUpdater.updateStatistics(statistics, usedSheets, unplacedPanels, currentSheetIndex, panels.size(), usedArea, totalArea, totalCuts, lowerBoundArea, performance);
             }
         });
         sheetNav.getChildren().addAll(prevSheetButton, nextSheetButton);
@@ -195,7 +203,10 @@ public class Main extends Application {
         VBox.setVgrow(rightSide, Priority.ALWAYS);
         HBox.setHgrow(centerSide, Priority.ALWAYS);
 
-        Scene scene = new Scene(root);
+        StackPane rootStack = new StackPane(root);
+        loadingOverlay = new LoadingOverlay(rootStack);
+
+        Scene scene = new Scene(rootStack);
         URL cssUrl = getClass().getResource("/styles.css");
         if (cssUrl != null) {
             scene.getStylesheets().add(cssUrl.toExternalForm());
@@ -214,15 +225,56 @@ public class Main extends Application {
     private double usedArea = 0.0;
     private double totalArea = 0.0;
     private int totalCuts = 0;
+    private double lowerBoundArea = 0.0;
+    private Map<String, StrategyMetrics> performance = Map.of();
+
+    private boolean hasResult = false;
 
     private void optimizeAndDisplay(TableView<Panel> panelsTable, TableView<StockSheet> stockTable) {
         loadingOverlay.showLoadingOverlay();
-        Optimizer.optimize(panels, stockSheets, thicknessInput, canvas, statistics, usedSheets, unplacedPanels, bestResult,
-                usedArea, totalArea, totalCuts, currentSheetIndex, loadingOverlay, this::updateStatistics);
+        Optimizer.optimize(panels, stockSheets, thicknessInput, searchTimeInput, loadingOverlay, false, this::applyResult);
+    }
+
+    private void reoptimizeAfterEdit() {
+        if (!hasResult) return;
+        loadingOverlay.showLoadingOverlay();
+        Optimizer.optimize(panels, stockSheets, thicknessInput, searchTimeInput, loadingOverlay, true, this::applyResult);
+    }
+
+    // Writes the edited value and re-sets the row, so list listeners see in-place edits too
+    private static <S, T> void commitEdit(TableColumn.CellEditEvent<S, T> event, BiConsumer<S, T> setter) {
+        ObservableList<S> items = event.getTableView().getItems();
+        int row = event.getTablePosition().getRow();
+        S item = items.get(row);
+        setter.accept(item, event.getNewValue());
+        items.set(row, item);
+    }
+
+    // Runs once per FX pulse at most; results that arrived in between were already superseded
+    @SuppressWarnings("unchecked")
+    private void applyResult(DisplayList displayList) {
+        OptimizationResult best = displayList.getResult();
+        hasResult = true;
+        usedSheets.clear();
+        usedSheets.addAll(best.getUsedSheets());
+        unplacedPanels.clear();
+        unplacedPanels.addAll(best.getUnplacedPanels());
+        bestResult.clear();
+        if (best.getCustomData() instanceof Map) {
+            bestResult.putAll((Map<String, OptimizationResult>) best.getCustomData());
+        }
+        usedArea = best.getUsedArea();
+        totalArea = best.getTotalArea();
+        totalCuts = best.getTotalCuts();
+        lowerBoundArea = best.getLowerBoundArea();
+        performance = best.getStrategyMetrics();
+        currentSheetIndex = 0;
+        layoutView.setDisplayList(displayList);
+        updateStatistics();
     }
 
     private void updateStatistics() {
-        StatisticsUpdater.updateStatistics(statistics, usedSheets, unplacedPanels, currentSheetIndex, panels.size(), usedArea, totalArea, totalCuts);
+        StatisticsUpdater.updateStatistics(statistics, usedSheets, unplacedPanels, currentSheetIndex, panels.size(), usedArea, totalArea, totalCuts, lowerBoundArea, performance);
     }
 
     public static void main(String[] args) {
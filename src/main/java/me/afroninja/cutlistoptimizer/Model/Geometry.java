@@ -0,0 +1,28 @@
+package me.afroninja.cutlistoptimizer.Model;
+
+/**
+ * Fixed-point lengths for the packing kernel. Panel, sheet and kerf sizes are converted once to {@code long}
+ * micro-units (millionths of an input unit), so every sum, difference and comparison in a packing run is
+ * exact and the same job always produces the same layout. Results convert back to input units when read.
+ */
+public final class Geometry {
+    public static final long MICROS_PER_UNIT = 1_000_000L;
+
+    private Geometry() { }
+
+    public static long toMicros(double length) {
+        return Math.round(length * MICROS_PER_UNIT);
+    }
+
+    public static double toUnits(long micros) {
+        return (double) micros / MICROS_PER_UNIT;
+    }
+
+    /**
+     * Whether a {@code width} x {@code height} box fits in a {@code freeWidth} x {@code freeHeight} one.
+     * Both differences are non-negative exactly when their bitwise OR is, so the test needs no branch.
+     */
+    public static boolean fits(long freeWidth, long freeHeight, long width, long height) {
+        return ((freeWidth - width) | (freeHeight - height)) >= 0;
+    }
+}
@@ -0,0 +1,45 @@
+package me.afroninja.cutlistoptimizer.Model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable description of a single packing run. Panels and stock sheets are copied on construction,
+ * so later edits to the UI tables never leak into a running optimization.
+ */
+public final class OptimizationJob {
+    private final List<Panel> panels;
+    private final List<StockSheet> stockSheets;
+    private final double cutThickness;
+    private final List<String> algorithms;
+    private final SearchBudget searchBudget;
+
+    public OptimizationJob(List<Panel> panels, List<StockSheet> stockSheets, double cutThickness, List<String> algorithms) {
+        this(panels, stockSheets, cutThickness, algorithms, SearchBudget.NONE);
+    }
+
+    public OptimizationJob(List<Panel> panels, List<StockSheet> stockSheets, double cutThickness, List<String> algorithms,
+                           SearchBudget searchBudget) {
+        List<Panel> panelCopies = new ArrayList<>(panels.size());
+        for (Panel panel : panels) {
+            panelCopies.add(new Panel(panel.getLength(), panel.getWidth(), panel.getQuantity(), panel.getLabel()));
+        }
+        List<StockSheet> sheetCopies = new ArrayList<>(stockSheets.size());
+        for (StockSheet sheet : stockSheets) {
+            sheetCopies.add(new StockSheet(sheet.getLength(), sheet.getWidth(), sheet.getQuantity(), sheet.getLabel(), sheet.getCost()));
+        }
+        this.panels = Collections.unmodifiableList(panelCopies);
+        this.stockSheets = Collections.unmodifiableList(sheetCopies);
+        this.cutThickness = cutThickness;
+        this.algorithms = List.copyOf(algorithms);
+        this.searchBudget = searchBudget;
+    }
+
+    // Getters
+    public List<Panel> getPanels() { return panels; }
+    public List<StockSheet> getStockSheets() { return stockSheets; }
+    public double getCutThickness() { return cutThickness; }
+    public List<String> getAlgorithms() { return algorithms; }
+    public SearchBudget getSearchBudget() { return searchBudget; }
+}
@@ -1,24 +1,30 @@
 package me.afroninja.cutlistoptimizer.Model;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class OptimizationResult {
     private List<StockSheet> usedSheets;
     private List<Panel> unplacedPanels;
+    private PlacementStore placements;
     private Map<Rectangle, Panel> placedPanels;
     private List<Rectangle> rectangles;
     private double usedArea;
     private double totalArea;
     private int totalCuts;
     private double wastePercentage;
+    private double lowerBoundArea;
+    private boolean provenOptimal;
     private Object customData;
+    private StrategyMetrics metrics;
+    private Map<String, StrategyMetrics> strategyMetrics = new LinkedHashMap<>();
 
     public OptimizationResult() {
         this.usedSheets = new ArrayList<>();
         this.unplacedPanels = new ArrayList<>();
-        this.placedPanels = new HashMap<>();
+        this.placements = new PlacementStore(List.of());
         this.rectangles = new ArrayList<>();
         this.usedArea = 0.0;
         this.totalArea = 0.0;
@@ -31,8 +37,8 @@ public class OptimizationResult {
     public void setUsedSheets(List<StockSheet> usedSheets) { this.usedSheets = usedSheets; }
     public List<Panel> getUnplacedPanels() { return unplacedPanels; }
     public void setUnplacedPanels(List<Panel> unplacedPanels) { this.unplacedPanels = unplacedPanels; }
-    public Map<Rectangle, Panel> getPlacedPanels() { return placedPanels; }
-    public void setPlacedPanels(Map<Rectangle, Panel> placedPanels) { this.placedPanels = placedPanels; }
+    public PlacementStore getPlacements() { return placements; }
+    public void setPlacements(PlacementStore placements) { this.placements = placements; this.placedPanels = null; }
     public List<Rectangle> getRectangles() { return rectangles; }
     public void setRectangles(List<Rectangle> rectangles) { this.rectangles = rectangles; }
     public double getUsedArea() { return usedArea; }
@@ -43,6 +49,32 @@ public class OptimizationResult {
     public void setTotalCuts(int totalCuts) { this.totalCuts = totalCuts; }
     public double getWastePercentage() { return wastePercentage; }
     public void setWastePercentage(double wastePercentage) { this.wastePercentage = wastePercentage; }
+    // Least stock area any complete layout of the job needs; 0 when unknown
+    public double getLowerBoundArea() { return lowerBoundArea; }
+    public void setLowerBoundArea(double lowerBoundArea) { this.lowerBoundArea = lowerBoundArea; }
+    // Set by exact strategies that finished their search: no guillotine layout needs less stock
+    public boolean isProvenOptimal() { return provenOptimal; }
+    public void setProvenOptimal(boolean provenOptimal) { this.provenOptimal = provenOptimal; }
     public Object getCustomData() { return customData; }
     public void setCustomData(Object customData) { this.customData = customData; }
-}
\ No newline at end of file
+    // How the run that produced this result went; null if it was not measured
+    public StrategyMetrics getMetrics() { return metrics; }
+    public void setMetrics(StrategyMetrics metrics) { this.metrics = metrics; }
+    // Snapshot of every strategy's metrics, attached to the result the engine returns
+    public Map<String, StrategyMetrics> getStrategyMetrics() { return strategyMetrics; }
+    public void setStrategyMetrics(Map<String, StrategyMetrics> strategyMetrics) { this.strategyMetrics = strategyMetrics; }
+
+    /**
+     * Object view of the placements for the UI, built on first use.
+     */
+    public Map<Rectangle, Panel> getPlacedPanels() {
+        if (placedPanels == null) {
+            Map<Rectangle, Panel> view = new LinkedHashMap<>();
+            for (int i = 0; i < placements.size(); i++) {
+                view.put(placements.getRectangle(i), placements.getPanel(i));
+            }
+            placedPanels = view;
+        }
+        return placedPanels;
+    }
+}
@@ -0,0 +1,106 @@
+package me.afroninja.cutlistoptimizer.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Placed panels of a result, stored column-wise in primitive arrays. Adding a placement only writes array
+ * slots, so the packing loop does not allocate per panel; {@link Rectangle} and {@link Panel} objects are
+ * created only when a caller asks for them.
+ * <p>
+ * Panel types index into {@link #getPanelTypes()}, the panel rows the job was built from. Coordinates are
+ * local to the placement's sheet and kept in {@link Geometry} micro-units; the plain getters convert them
+ * back to input units.
+ */
+public class PlacementStore {
+    private final List<Panel> panelTypes;
+    private long[] x;
+    private long[] y;
+    private long[] width;
+    private long[] height;
+    private int[] sheet;
+    private int[] panelType;
+    private boolean[] rotated;
+    private int size;
+
+    public PlacementStore(List<Panel> panelTypes) {
+        this(panelTypes, 64);
+    }
+
+    public PlacementStore(List<Panel> panelTypes, int initialCapacity) {
+        this.panelTypes = Collections.unmodifiableList(new ArrayList<>(panelTypes));
+        int capacity = Math.max(initialCapacity, 4);
+        x = new long[capacity];
+        y = new long[capacity];
+        width = new long[capacity];
+        height = new long[capacity];
+        sheet = new int[capacity];
+        panelType = new int[capacity];
+        rotated = new boolean[capacity];
+    }
+
+    /**
+     * Takes over columns that were filled elsewhere, such as by a file loader; the first {@code size} slots of
+     * every array are the placements. The arrays are not copied.
+     */
+    public PlacementStore(List<Panel> panelTypes, long[] x, long[] y, long[] width, long[] height, int[] sheet,
+                          int[] panelType, boolean[] rotated, int size) {
+        this.panelTypes = Collections.unmodifiableList(new ArrayList<>(panelTypes));
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.sheet = sheet;
+        this.panelType = panelType;
+        this.rotated = rotated;
+        this.size = size;
+    }
+
+    public int add(long placedX, long placedY, long placedWidth, long placedHeight,
+                   int sheetIndex, int type, boolean isRotated) {
+        if (size == x.length) grow();
+        x[size] = placedX;
+        y[size] = placedY;
+        width[size] = placedWidth;
+        height[size] = placedHeight;
+        sheet[size] = sheetIndex;
+        panelType[size] = type;
+        rotated[size] = isRotated;
+        return size++;
+    }
+
+    public int size() { return size; }
+    public double getX(int i) { return Geometry.toUnits(x[i]); }
+    public double getY(int i) { return Geometry.toUnits(y[i]); }
+    public double getWidth(int i) { return Geometry.toUnits(width[i]); }
+    public double getHeight(int i) { return Geometry.toUnits(height[i]); }
+    public long getXMicros(int i) { return x[i]; }
+    public long getYMicros(int i) { return y[i]; }
+    public long getWidthMicros(int i) { return width[i]; }
+    public long getHeightMicros(int i) { return height[i]; }
+    public int getSheet(int i) { return sheet[i]; }
+    public int getPanelType(int i) { return panelType[i]; }
+    public boolean isRotated(int i) { return rotated[i]; }
+    public List<Panel> getPanelTypes() { return panelTypes; }
+
+    public Rectangle getRectangle(int i) {
+        return new Rectangle(getX(i), getY(i), getWidth(i), getHeight(i), sheet[i]);
+    }
+
+    public Panel getPanel(int i) {
+        return panelTypes.get(panelType[i]);
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        sheet = Arrays.copyOf(sheet, capacity);
+        panelType = Arrays.copyOf(panelType, capacity);
+        rotated = Arrays.copyOf(rotated, capacity);
+    }
+}
@@ -1,16 +1,27 @@
 package me.afroninja.cutlistoptimizer.Model;
 
+import java.util.Objects;
+
+/**
+ * An axis-aligned rectangle on one sheet, in that sheet's own coordinates.
+ */
 public class Rectangle {
     private double x;
     private double y;
     private double width;
     private double height;
+    private int sheet;
 
     public Rectangle(double x, double y, double width, double height) {
+        this(x, y, width, height, 0);
+    }
+
+    public Rectangle(double x, double y, double width, double height, int sheet) {
         this.x = x;
         this.y = y;
         this.width = width;
         this.height = height;
+        this.sheet = sheet;
     }
 
     // Getters and setters
@@ -22,4 +33,20 @@ public class Rectangle {
     public void setWidth(double width) { this.width = width; }
     public double getHeight() { return height; }
     public void setHeight(double height) { this.height = height; }
-}
\ No newline at end of file
+    public int getSheet() { return sheet; }
+    public void setSheet(int sheet) { this.sheet = sheet; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Rectangle)) return false;
+        Rectangle other = (Rectangle) o;
+        return sheet == other.sheet && Double.compare(x, other.x) == 0 && Double.compare(y, other.y) == 0 &&
+                Double.compare(width, other.width) == 0 && Double.compare(height, other.height) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(x, y, width, height, sheet);
+    }
+}
@@ -0,0 +1,80 @@
+package me.afroninja.cutlistoptimizer.Model;
+
+/**
+ * How much improvement search follows the greedy strategies. {@code starts} randomized restarts are run in
+ * parallel first; the annealing search then runs until its wall-clock or iteration limit is reached,
+ * whichever comes first. A wall-clock limit covers the restarts too. Zero means none of that kind;
+ * {@link #NONE} disables the search altogether.
+ */
+public final class SearchBudget {
+    public static final SearchBudget NONE = new SearchBudget(0, 0, 0);
+
+    private static final int SECONDS_STARTS = 64;
+
+    private final long timeMillis;
+    private final long iterations;
+    private final int starts;
+
+    public SearchBudget(long timeMillis, long iterations) {
+        this(timeMillis, iterations, 0);
+    }
+
+    public SearchBudget(long timeMillis, long iterations, int starts) {
+        if (timeMillis < 0 || iterations < 0 || starts < 0) {
+            throw new IllegalArgumentException("Search budget must not be negative");
+        }
+        this.timeMillis = timeMillis;
+        this.iterations = iterations;
+        this.starts = starts;
+    }
+
+    public static SearchBudget ofMillis(long timeMillis) {
+        return new SearchBudget(timeMillis, 0);
+    }
+
+    public static SearchBudget ofIterations(long iterations) {
+        return new SearchBudget(0, iterations);
+    }
+
+    public static SearchBudget ofStarts(int starts) {
+        return new SearchBudget(0, 0, starts);
+    }
+
+    /**
+     * The budget for a search of the given wall-clock length: a fixed round of restarts and then annealing,
+     * both within that time. The same on every machine, so jobs keep their cache keys; a slower machine just
+     * gets through fewer starts. {@link #NONE} for zero or less.
+     */
+    public static SearchBudget ofSeconds(double seconds) {
+        if (!(seconds > 0)) return NONE;
+        return new SearchBudget(Math.round(seconds * 1000), 0, SECONDS_STARTS);
+    }
+
+    public long getTimeMillis() { return timeMillis; }
+    public long getIterations() { return iterations; }
+    public int getStarts() { return starts; }
+
+    public boolean isEnabled() {
+        return timeMillis > 0 || iterations > 0 || starts > 0;
+    }
+
+    /**
+     * Whether the annealing search runs, i.e. a time or iteration limit is set.
+     */
+    public boolean isAnnealing() {
+        return timeMillis > 0 || iterations > 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchBudget)) return false;
+        SearchBudget other = (SearchBudget) o;
+        return timeMillis == other.timeMillis && iterations == other.iterations && starts == other.starts;
+    }
+
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(timeMillis) * 31 + Long.hashCode(iterations)) * 31 + starts;
+    }
+}
@@ -5,12 +5,18 @@ public class StockSheet {
     private double width;
     private int quantity;
     private String label;
+    private double cost;
 
     public StockSheet(double length, double width, int quantity, String label) {
+        this(length, width, quantity, label, 0.0);
+    }
+
+    public StockSheet(double length, double width, int quantity, String label, double cost) {
         this.length = length;
         this.width = width;
         this.quantity = quantity;
         this.label = label;
+        this.cost = cost;
     }
 
     // Getters and setters
@@ -22,4 +28,6 @@ public class StockSheet {
     public void setQuantity(int quantity) { this.quantity = quantity; }
     public String getLabel() { return label; }
     public void setLabel(String label) { this.label = label; }
+    public double getCost() { return cost; }
+    public void setCost(double cost) { this.cost = cost; }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package me.afroninja.cutlistoptimizer.Model;
+
+/**
+ * Measurements of one strategy run. Times and allocation are those of the thread that ran the strategy, and
+ * -1 where the JVM cannot measure them. The free-rectangle figures are 0 for strategies without an index.
+ */
+public class StrategyMetrics {
+    private long wallNanos;
+    private long cpuNanos = -1;
+    private long allocatedBytes = -1;
+    private int placements;
+    private int peakFreeRectangles;
+    private long fitTests;
+
+    // Getters and setters
+    public long getWallNanos() { return wallNanos; }
+    public void setWallNanos(long wallNanos) { this.wallNanos = wallNanos; }
+    public long getCpuNanos() { return cpuNanos; }
+    public void setCpuNanos(long cpuNanos) { this.cpuNanos = cpuNanos; }
+    public long getAllocatedBytes() { return allocatedBytes; }
+    public void setAllocatedBytes(long allocatedBytes) { this.allocatedBytes = allocatedBytes; }
+    public int getPlacements() { return placements; }
+    public void setPlacements(int placements) { this.placements = placements; }
+    public int getPeakFreeRectangles() { return peakFreeRectangles; }
+    public void setPeakFreeRectangles(int peakFreeRectangles) { this.peakFreeRectangles = peakFreeRectangles; }
+    public long getFitTests() { return fitTests; }
+    public void setFitTests(long fitTests) { this.fitTests = fitTests; }
+
+    public double getPlacementsPerSecond() {
+        return wallNanos > 0 ? placements / (wallNanos / 1e9) : 0.0;
+    }
+}
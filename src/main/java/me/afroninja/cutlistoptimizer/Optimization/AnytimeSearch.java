@@ -0,0 +1,235 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.SearchBudget;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulated annealing over the inputs of the free-rectangle strategies: the order the panel types are packed
+ * in, which types are tried turned first, the order stock rows are taken in, and which strategy's placement
+ * rules decode them. Every candidate is decoded by {@link FreeRectanglePacker#decode}, so each one is a
+ * complete, valid layout and the search can be stopped at any moment with the best one found so far.
+ * <p>
+ * The walk scores candidates by waste, plus a penalty for panels left unplaced and small terms for cuts and
+ * for the fill of the emptiest sheet; the last one rewards moves that drain a sheet before it can be dropped.
+ * The layout kept and reported is the best by {@link PackingEngine#isBetter}, the engine's own ranking. The
+ * temperature falls geometrically over the budget, whichever of time or iterations runs out first.
+ */
+public class AnytimeSearch {
+    public static final String NAME = "Anytime search";
+
+    private static final double START_TEMPERATURE = 2.0;
+    private static final double END_TEMPERATURE = 0.01;
+    private static final double UNPLACED_PENALTY = 10.0;
+    private static final double CUT_WEIGHT = 0.001;
+    private static final double EMPTIEST_SHEET_WEIGHT = 0.1;
+    private static final int PROGRESS_INTERVAL = 16;
+
+    private final List<FreeRectanglePacker> decoders;
+    private final long seed;
+
+    AnytimeSearch(List<FreeRectanglePacker> decoders, long seed) {
+        this.decoders = decoders;
+        this.seed = seed;
+    }
+
+    /**
+     * Searches within {@code budget} and returns the best layout found, or {@code start} itself if nothing
+     * beat it. Each improvement is reported to the listener as it is found; cancelling through the listener
+     * ends the search early with the best layout so far, and so does reaching the lower bound.
+     */
+    public OptimizationResult search(OptimizationJob job, SearchBudget budget, OptimizationResult start,
+                                     LowerBounds bounds, OptimizationListener listener) {
+        List<Panel> types = new ArrayList<>();
+        double demandArea = 0.0;
+        for (Panel panel : job.getPanels()) {
+            if (panel.getQuantity() <= 0) continue;
+            types.add(panel);
+            demandArea += panel.getQuantity() * panel.getLength() * panel.getWidth();
+        }
+        if (types.isEmpty() || decoders.isEmpty() || !budget.isAnnealing() || bounds.isReachedBy(start)) {
+            return start;
+        }
+
+        Random random = new Random(seed);
+        List<StockSheet> stockRows = job.getStockSheets();
+        double kerf = job.getCutThickness();
+
+        OptimizationResult best = start;
+
+        // Each decoder's own greedy order is a starting point; the cheapest one seeds the walk
+        Candidate current = null;
+        double currentCost = Double.MAX_VALUE;
+        for (int d = 0; d < decoders.size(); d++) {
+            Candidate candidate = Candidate.initial(d, types, decoders.get(d), stockRows.size());
+            OptimizationResult result = decode(candidate, types, stockRows, kerf);
+            double candidateCost = cost(result, demandArea);
+            if (candidateCost < currentCost) {
+                current = candidate;
+                currentCost = candidateCost;
+            }
+            if (PackingEngine.isBetter(result, best)) {
+                best = result;
+                listener.improved(best);
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        for (long iteration = 1; ; iteration++) {
+            double progress = progress(budget, iteration, System.nanoTime() - startNanos);
+            if (progress >= 1.0 || listener.isCancelled() || bounds.isReachedBy(best)) break;
+            if (iteration % PROGRESS_INTERVAL == 0) {
+                listener.searchProgress(progress);
+            }
+
+            Candidate neighbour = current.neighbour(random, decoders.size());
+            OptimizationResult result = decode(neighbour, types, stockRows, kerf);
+            double neighbourCost = cost(result, demandArea);
+            double temperature = START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, progress);
+            double delta = neighbourCost - currentCost;
+            if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                current = neighbour;
+                currentCost = neighbourCost;
+            }
+            if (PackingEngine.isBetter(result, best)) {
+                best = result;
+                listener.improved(best);
+            }
+        }
+        listener.searchProgress(1.0);
+        return best;
+    }
+
+    private OptimizationResult decode(Candidate candidate, List<Panel> types, List<StockSheet> stockRows, double kerf) {
+        List<Panel> ordered = new ArrayList<>(candidate.order.length);
+        boolean[] turnFirst = new boolean[candidate.order.length];
+        for (int i = 0; i < candidate.order.length; i++) {
+            ordered.add(types.get(candidate.order[i]));
+            turnFirst[i] = candidate.turned[candidate.order[i]];
+        }
+        List<StockSheet> stock = new ArrayList<>(candidate.stockOrder.length);
+        for (int row : candidate.stockOrder) {
+            stock.add(stockRows.get(row));
+        }
+        return decoders.get(candidate.decoder).decode(ordered, turnFirst, stock, kerf);
+    }
+
+    private static double cost(OptimizationResult result, double demandArea) {
+        double unplacedArea = 0.0;
+        for (Panel panel : result.getUnplacedPanels()) {
+            unplacedArea += panel.getQuantity() * panel.getLength() * panel.getWidth();
+        }
+        double waste = result.getTotalArea() > 0 ? result.getWastePercentage() : 0.0;
+        return waste + UNPLACED_PENALTY * 100 * unplacedArea / demandArea + CUT_WEIGHT * result.getTotalCuts()
+                + EMPTIEST_SHEET_WEIGHT * emptiestSheetFill(result);
+    }
+
+    private static double emptiestSheetFill(OptimizationResult result) {
+        List<StockSheet> sheets = result.getUsedSheets();
+        if (sheets.isEmpty()) return 0.0;
+        PlacementStore placements = result.getPlacements();
+        List<Panel> panelTypes = placements.getPanelTypes();
+        double[] used = new double[sheets.size()];
+        for (int i = 0; i < placements.size(); i++) {
+            Panel panel = panelTypes.get(placements.getPanelType(i));
+            used[placements.getSheet(i)] += panel.getLength() * panel.getWidth();
+        }
+        double emptiest = 1.0;
+        for (int s = 0; s < used.length; s++) {
+            emptiest = Math.min(emptiest, used[s] / (sheets.get(s).getLength() * sheets.get(s).getWidth()));
+        }
+        return emptiest;
+    }
+
+    private static double progress(SearchBudget budget, long iteration, long elapsedNanos) {
+        double progress = 0.0;
+        if (budget.getTimeMillis() > 0) {
+            progress = elapsedNanos / (budget.getTimeMillis() * 1_000_000.0);
+        }
+        if (budget.getIterations() > 0) {
+            progress = Math.max(progress, (double) iteration / budget.getIterations());
+        }
+        return Math.min(progress, 1.0);
+    }
+
+    /**
+     * One point of the search space. Arrays are never modified once the candidate exists; neighbours copy.
+     */
+    private static final class Candidate {
+        final int decoder;
+        final int[] order;
+        final boolean[] turned;
+        final int[] stockOrder;
+
+        Candidate(int decoder, int[] order, boolean[] turned, int[] stockOrder) {
+            this.decoder = decoder;
+            this.order = order;
+            this.turned = turned;
+            this.stockOrder = stockOrder;
+        }
+
+        static Candidate initial(int decoder, List<Panel> types, FreeRectanglePacker packer, int stockRows) {
+            List<Integer> sorted = new ArrayList<>(types.size());
+            for (int i = 0; i < types.size(); i++) sorted.add(i);
+            sorted.sort((a, b) -> packer.panelOrder().compare(types.get(a), types.get(b)));
+            int[] order = new int[types.size()];
+            for (int i = 0; i < order.length; i++) order[i] = sorted.get(i);
+            int[] stockOrder = new int[stockRows];
+            for (int i = 0; i < stockRows; i++) stockOrder[i] = i;
+            return new Candidate(decoder, order, new boolean[types.size()], stockOrder);
+        }
+
+        Candidate neighbour(Random random, int decoderCount) {
+            int n = order.length;
+            while (true) {
+                switch (random.nextInt(5)) {
+                    case 0:
+                        if (n < 2) break;
+                        int[] swapped = order.clone();
+                        int a = random.nextInt(n);
+                        int b = random.nextInt(n);
+                        swapped[a] = order[b];
+                        swapped[b] = order[a];
+                        return new Candidate(decoder, swapped, turned, stockOrder);
+                    case 1:
+                        if (n < 2) break;
+                        int from = random.nextInt(n);
+                        int to = random.nextInt(n);
+                        int[] moved = order.clone();
+                        int type = moved[from];
+                        if (from < to) {
+                            System.arraycopy(moved, from + 1, moved, from, to - from);
+                        } else {
+                            System.arraycopy(moved, to, moved, to + 1, from - to);
+                        }
+                        moved[to] = type;
+                        return new Candidate(decoder, moved, turned, stockOrder);
+                    case 2:
+                        boolean[] flipped = turned.clone();
+                        int flip = random.nextInt(n);
+                        flipped[flip] = !flipped[flip];
+                        return new Candidate(decoder, order, flipped, stockOrder);
+                    case 3:
+                        if (stockOrder.length < 2) break;
+                        int[] stock = stockOrder.clone();
+                        int i = random.nextInt(stock.length);
+                        int j = random.nextInt(stock.length);
+                        stock[i] = stockOrder[j];
+                        stock[j] = stockOrder[i];
+                        return new Candidate(decoder, order, turned, stock);
+                    default:
+                        if (decoderCount < 2) break;
+                        int other = (decoder + 1 + random.nextInt(decoderCount - 1)) % decoderCount;
+                        return new Candidate(other, order, turned, stockOrder);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Panel;
+
+import java.util.Comparator;
+
+/**
+ * Best-fit decreasing height: panels sorted by width, each placed in the free rectangle and orientation
+ * with the least leftover length plus width. Leftover space is cut shelf-style like {@link FfdhAlgorithm}.
+ */
+public class BfdhAlgorithm extends FreeRectanglePacker {
+    @Override
+    protected Comparator<Panel> panelOrder() {
+        return (p1, p2) -> Double.compare(p2.getWidth(), p1.getWidth());
+    }
+
+    @Override
+    protected int choose(FreeRectangleIndex index, long panelLength, long panelWidth, boolean[] rotated) {
+        int upright = index.findTightestFit(panelLength, panelWidth);
+        int turned = index.findTightestFit(panelWidth, panelLength);
+        long uprightFit = upright == FreeRectangleIndex.NONE ? Long.MAX_VALUE
+                : (index.getWidth(upright) - panelLength) + (index.getHeight(upright) - panelWidth);
+        long turnedFit = turned == FreeRectangleIndex.NONE ? Long.MAX_VALUE
+                : (index.getWidth(turned) - panelWidth) + (index.getHeight(turned) - panelLength);
+        rotated[0] = turnedFit < uprightFit;
+        return rotated[0] ? turned : upright;
+    }
+
+    @Override
+    protected void split(FreeRectangleIndex index, long rectX, long rectY, long rectWidth, long rectHeight,
+                         long panelLength, long panelWidth, long kerf, int sheet) {
+        FfdhAlgorithm.shelfSplit(index, rectX, rectY, rectWidth, rectHeight, panelLength, panelWidth, sheet);
+    }
+}
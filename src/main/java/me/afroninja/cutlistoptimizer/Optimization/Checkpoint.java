@@ -0,0 +1,62 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cooperative cancellation of the strategies' placement loops. An optimization stops when its listener
+ * reports it cancelled (in the UI, when {@link OptimizationScheduler} cancels its task); {@link PortfolioExecutor}
+ * then sets the run's abandoned flag, which it installs here as the stop condition of every strategy's thread.
+ * The loops {@linkplain #check() check} it as they open sheets and place panels, so abandoned strategies stop
+ * within one placement instead of running to the end. Threads are never interrupted for this, since a
+ * pooled thread can carry a stale interrupt into an unrelated task. The flag is per thread: work a strategy
+ * forks onto a pool must carry it over with {@link #current()}, as {@link SheetParallelPacker} does, and
+ * {@link MultiStartSearch} installs its own stop flag on its starts. Elsewhere, for example in the anytime
+ * search's decoders, checks do nothing and the caller stops between runs instead.
+ */
+final class Checkpoint {
+    private static final ThreadLocal<BooleanSupplier> STOP = new ThreadLocal<>();
+
+    private Checkpoint() { }
+
+    /**
+     * Calls {@code task} with {@code stop} as this thread's stop condition.
+     */
+    static <T> T run(BooleanSupplier stop, Callable<T> task) throws Exception {
+        BooleanSupplier outer = STOP.get();
+        STOP.set(stop);
+        try {
+            return task.call();
+        } finally {
+            if (outer == null) {
+                STOP.remove();
+            } else {
+                STOP.set(outer);
+            }
+        }
+    }
+
+    /**
+     * This thread's stop condition, to install on the pool tasks it starts; never stops outside a portfolio.
+     */
+    static BooleanSupplier current() {
+        BooleanSupplier stop = STOP.get();
+        return stop != null ? stop : () -> false;
+    }
+
+    /**
+     * Throws {@link CancellationException} if this thread's work has been abandoned.
+     */
+    static void check() {
+        if (stopped()) throw new CancellationException("Strategy abandoned");
+    }
+
+    /**
+     * Whether this thread's work has been abandoned, for loops that can stop early with a valid result.
+     */
+    static boolean stopped() {
+        BooleanSupplier stop = STOP.get();
+        return stop != null && stop.getAsBoolean();
+    }
+}
@@ -0,0 +1,474 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Geometry;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.Rectangle;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exact branch-and-bound over guillotine layouts for small jobs. The best of the greedy guillotine strategies
+ * is the starting incumbent; the search then looks for a layout on less stock area, and if it runs to the
+ * end without hitting the time limit the result is flagged {@linkplain OptimizationResult#isProvenOptimal()
+ * proven optimal}: no guillotine layout places every panel on less stock.
+ * <p>
+ * First every guillotine block that could matter is built bottom-up, Wang style: a block is a panel, or two
+ * blocks side by side or stacked, with the panel counts it holds. Copies of a panel type are only counted,
+ * never told apart, so permutations of identical panels are never generated. Blocks with the same counts
+ * keep only the Pareto-smallest envelopes, and blocks whose own waste already uses up the slack are
+ * dropped. The slack is taken against the target, the largest stock area below the incumbent that some
+ * combination of the stock can add up to, rather than the incumbent itself, which on single-size stock
+ * tightens it by a whole sheet. The search then fills one sheet at a time with a block. The sheet must hold the largest
+ * panel type still to place, which breaks the symmetry between sheets, and every node is cut off by the
+ * {@link LowerBounds} of what is left and by a memo of the least stock area each remaining state has been
+ * reached with.
+ * <p>
+ * Jobs with more than {@link #MAX_PARTS} parts, or whose incumbent cannot place every panel, are answered
+ * by the incumbent alone.
+ */
+public class ExactGuillotineAlgorithm implements PackingAlgorithm {
+    public static final int MAX_PARTS = 40;
+    private static final int MAX_BLOCKS = 200_000;
+    private static final double EPSILON = 1e-9;
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+    private static final int MAX_TARGETS = 100_000;
+
+    private final long timeLimitMillis;
+
+    public ExactGuillotineAlgorithm(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    @Override
+    public OptimizationResult pack(List<Panel> panels, List<StockSheet> sheets, double cutThickness) {
+        OptimizationResult incumbent = null;
+        for (PackingAlgorithm greedy : new PackingAlgorithm[]{new GuillotineAlgorithm(), new FfdhAlgorithm(), new BfdhAlgorithm()}) {
+            OptimizationResult result = greedy.pack(new ArrayList<>(panels), new ArrayList<>(sheets), cutThickness);
+            if (PackingEngine.isBetter(result, incumbent)) incumbent = result;
+        }
+        if (!incumbent.getUnplacedPanels().isEmpty()) return incumbent;
+        if (LowerBounds.of(panels, sheets).isReachedBy(incumbent)) {
+            incumbent.setProvenOptimal(true);
+            return incumbent;
+        }
+
+        int parts = 0;
+        List<Panel> types = new ArrayList<>();
+        for (Panel panel : panels) {
+            if (panel.getQuantity() <= 0) continue;
+            types.add(panel);
+            parts += panel.getQuantity();
+        }
+        if (parts > MAX_PARTS) return incumbent;
+        types.sort((p1, p2) -> Double.compare(p2.getLength() * p2.getWidth(), p1.getLength() * p1.getWidth()));
+        List<StockSheet> rows = new ArrayList<>();
+        for (StockSheet sheet : sheets) {
+            if (sheet.getQuantity() > 0) rows.add(sheet);
+        }
+
+        Search search = new Search(types, rows, Geometry.toMicros(cutThickness), incumbent.getTotalArea(),
+                System.nanoTime() + timeLimitMillis * 1_000_000L);
+        if (search.target >= 0) {
+            search.buildBlocks();
+            if (!search.stopped) search.run();
+        }
+
+        OptimizationResult result = search.solution == null ? incumbent : search.toResult();
+        // Blocks and nodes are not free rectangles or fit tests, so the search reports neither
+        result.setProvenOptimal(!search.stopped && search.blocksComplete);
+        return result;
+    }
+
+    /**
+     * A guillotine block: a single panel, or blocks {@code first} and {@code second} side by side
+     * ({@code horizontal}) or stacked. Sizes include kerf, in micro-units; areas are in square input units.
+     */
+    private static final class Block {
+        final long width;
+        final long height;
+        final int[] counts;
+        final long key;
+        final double panelArea;
+        final Block first;
+        final Block second;
+        final boolean horizontal;
+        final int type;
+        final boolean rotated;
+        boolean dominated;
+
+        Block(long width, long height, int[] counts, long key, double panelArea, int type, boolean rotated) {
+            this.width = width;
+            this.height = height;
+            this.counts = counts;
+            this.key = key;
+            this.panelArea = panelArea;
+            this.first = null;
+            this.second = null;
+            this.horizontal = false;
+            this.type = type;
+            this.rotated = rotated;
+        }
+
+        Block(Block first, Block second, boolean horizontal, int[] counts, long key) {
+            this.width = horizontal ? first.width + second.width : Math.max(first.width, second.width);
+            this.height = horizontal ? Math.max(first.height, second.height) : first.height + second.height;
+            this.counts = counts;
+            this.key = key;
+            this.panelArea = first.panelArea + second.panelArea;
+            this.first = first;
+            this.second = second;
+            this.horizontal = horizontal;
+            this.type = -1;
+            this.rotated = false;
+        }
+    }
+
+    private static final class Search {
+        private final List<Panel> types;
+        private final List<StockSheet> rows;
+        private final int[] quantity;
+        private final long[] radix;
+        private final long[] length;
+        private final long[] width;
+        private final long[] rowLength;
+        private final long[] rowWidth;
+        private final double demandArea;
+        private final long deadline;
+
+        private final List<Block> blocks = new ArrayList<>();
+        private final Map<Long, List<Block>> blocksByCounts = new HashMap<>();
+        private final Map<State, Double> reached = new HashMap<>();
+        private List<List<Block>> blocksByRow;
+        private boolean blocksComplete = true;
+        private boolean stopped;
+        private long nodes;
+
+        private double incumbentArea;
+        private double target;
+        private List<Block> solution;
+        private List<Integer> solutionRows;
+        private final List<Block> chosen = new ArrayList<>();
+        private final List<Integer> chosenRows = new ArrayList<>();
+
+        Search(List<Panel> types, List<StockSheet> rows, long kerf, double incumbentArea, long deadline) {
+            this.types = types;
+            this.rows = rows;
+            this.incumbentArea = incumbentArea;
+            this.deadline = deadline;
+            int count = types.size();
+            quantity = new int[count];
+            radix = new long[count];
+            length = new long[count];
+            width = new long[count];
+            double demand = 0.0;
+            long place = 1;
+            for (int t = 0; t < count; t++) {
+                Panel panel = types.get(t);
+                quantity[t] = panel.getQuantity();
+                radix[t] = place;
+                place *= quantity[t] + 1;
+                length[t] = Geometry.toMicros(panel.getLength()) + kerf;
+                width[t] = Geometry.toMicros(panel.getWidth()) + kerf;
+                demand += quantity[t] * Geometry.toUnits(length[t]) * Geometry.toUnits(width[t]);
+            }
+            demandArea = demand;
+            rowLength = new long[rows.size()];
+            rowWidth = new long[rows.size()];
+            for (int r = 0; r < rowLength.length; r++) {
+                rowLength[r] = Geometry.toMicros(rows.get(r).getLength());
+                rowWidth[r] = Geometry.toMicros(rows.get(r).getWidth());
+            }
+            target = nextTarget(incumbentArea);
+        }
+
+        /**
+         * Largest stock area below {@code area} that whole sheets of the stock add up to and that is not below
+         * the job's lower bound, or -1 if there is none. Falls back to just below {@code area} when the stock
+         * has too many combinations to list.
+         */
+        private double nextTarget(double area) {
+            int parts = partCount();
+            Set<Double> sums = new HashSet<>();
+            sums.add(0.0);
+            for (StockSheet row : rows) {
+                double sheetArea = row.getLength() * row.getWidth();
+                List<Double> previous = new ArrayList<>(sums);
+                for (double sum : previous) {
+                    for (int k = 1; k <= Math.min(row.getQuantity(), parts); k++) {
+                        if (sum + k * sheetArea >= area - EPSILON) break;
+                        sums.add(sum + k * sheetArea);
+                    }
+                }
+                if (sums.size() > MAX_TARGETS) return area - 2 * EPSILON;
+            }
+            double best = -1;
+            for (double sum : sums) {
+                if (sum > best) best = sum;
+            }
+            return best < lowerBound(quantity, stockCounts()) - EPSILON ? -1 : best;
+        }
+
+        private int[] stockCounts() {
+            int[] stock = new int[rows.size()];
+            for (int r = 0; r < stock.length; r++) {
+                stock[r] = rows.get(r).getQuantity();
+            }
+            return stock;
+        }
+
+        /**
+         * Wang's bottom-up construction: every new block is combined with every block before it, in both
+         * directions, until no new block appears.
+         */
+        void buildBlocks() {
+            double slack = target - demandArea;
+            for (int t = 0; t < types.size(); t++) {
+                int[] counts = new int[types.size()];
+                counts[t] = 1;
+                double area = Geometry.toUnits(length[t]) * Geometry.toUnits(width[t]);
+                offer(new Block(length[t], width[t], counts, radix[t], area, t, false), slack);
+                if (length[t] != width[t]) {
+                    offer(new Block(width[t], length[t], counts, radix[t], area, t, true), slack);
+                }
+            }
+            for (int i = 0; i < blocks.size() && !stopped; i++) {
+                Block a = blocks.get(i);
+                for (int j = 0; j <= i; j++) {
+                    if (a.dominated) break;
+                    Block b = blocks.get(j);
+                    if (b.dominated) continue;
+                    // Size and waste are checked first, as most pairs fail them and they need no allocation
+                    double panelArea = a.panelArea + b.panelArea;
+                    boolean sideBySide = usable(a.width + b.width, Math.max(a.height, b.height), panelArea, slack);
+                    boolean stacked = usable(Math.max(a.width, b.width), a.height + b.height, panelArea, slack);
+                    if ((!sideBySide && !stacked) || !fitsTogether(a, b)) continue;
+                    int[] counts = new int[types.size()];
+                    for (int t = 0; t < counts.length; t++) {
+                        counts[t] = a.counts[t] + b.counts[t];
+                    }
+                    if (sideBySide) offer(new Block(a, b, true, counts, a.key + b.key), slack);
+                    if (stacked) offer(new Block(a, b, false, counts, a.key + b.key), slack);
+                }
+                if (blocks.size() > MAX_BLOCKS) {
+                    blocksComplete = false;
+                    break;
+                }
+                if (clockExpired()) stopped = true;
+            }
+
+            blocksByRow = new ArrayList<>();
+            for (int r = 0; r < rows.size(); r++) {
+                List<Block> fitting = new ArrayList<>();
+                for (Block block : blocks) {
+                    if (!block.dominated && block.width <= rowLength[r] && block.height <= rowWidth[r]) fitting.add(block);
+                }
+                fitting.sort((b1, b2) -> Double.compare(b2.panelArea, b1.panelArea));
+                blocksByRow.add(fitting);
+            }
+        }
+
+        private boolean fitsTogether(Block a, Block b) {
+            for (int t = 0; t < quantity.length; t++) {
+                if (a.counts[t] + b.counts[t] > quantity[t]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Whether a block of this envelope fits some stock row and wastes no more than the slack.
+         */
+        private boolean usable(long blockWidth, long blockHeight, double panelArea, double slack) {
+            if (Geometry.toUnits(blockWidth) * Geometry.toUnits(blockHeight) - panelArea > slack + EPSILON) return false;
+            for (int r = 0; r < rowLength.length; r++) {
+                if (blockWidth <= rowLength[r] && blockHeight <= rowWidth[r]) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Keeps a usable block unless a block with the same counts has an envelope inside its own.
+         */
+        private void offer(Block block, double slack) {
+            if (!usable(block.width, block.height, block.panelArea, slack)) return;
+            List<Block> same = blocksByCounts.computeIfAbsent(block.key, k -> new ArrayList<>());
+            for (Block other : same) {
+                if (!other.dominated && other.width <= block.width && other.height <= block.height) return;
+            }
+            for (Block other : same) {
+                if (other.width >= block.width && other.height >= block.height) other.dominated = true;
+            }
+            same.removeIf(other -> other.dominated);
+            same.add(block);
+            blocks.add(block);
+        }
+
+        void run() {
+            search(quantity.clone(), stockCounts(), 0.0, 0.0);
+        }
+
+        private void search(int[] remaining, int[] stock, double usedArea, double waste) {
+            if (stopped) return;
+            if (++nodes % CLOCK_CHECK_INTERVAL == 0 && clockExpired()) {
+                stopped = true;
+                return;
+            }
+            int first = -1;
+            long key = 0;
+            for (int t = 0; t < remaining.length; t++) {
+                if (remaining[t] > 0 && first < 0) first = t;
+                key += remaining[t] * radix[t];
+            }
+            if (first < 0) {
+                if (usedArea <= target + EPSILON) {
+                    incumbentArea = usedArea;
+                    target = nextTarget(usedArea);
+                    solution = new ArrayList<>(chosen);
+                    solutionRows = new ArrayList<>(chosenRows);
+                }
+                return;
+            }
+            if (usedArea + lowerBound(remaining, stock) > target + EPSILON) return;
+            State state = new State(key, stock);
+            Double seen = reached.get(state);
+            if (seen != null && seen <= usedArea + EPSILON) return;
+            reached.put(state, usedArea);
+
+            for (int r = 0; r < rows.size(); r++) {
+                if (stock[r] == 0) continue;
+                double sheetArea = rows.get(r).getLength() * rows.get(r).getWidth();
+                if (usedArea + sheetArea > target + EPSILON) continue;
+                stock[r]--;
+                chosenRows.add(r);
+                for (Block block : blocksByRow.get(r)) {
+                    // Blocks are sorted by panel area, so the sheet's waste only grows from here on
+                    if (waste + sheetArea - block.panelArea > target - demandArea + EPSILON) break;
+                    if (block.counts[first] == 0 || !fitsIn(block, remaining)) continue;
+                    for (int t = 0; t < remaining.length; t++) remaining[t] -= block.counts[t];
+                    chosen.add(block);
+                    search(remaining, stock, usedArea + sheetArea, waste + sheetArea - block.panelArea);
+                    chosen.remove(chosen.size() - 1);
+                    for (int t = 0; t < remaining.length; t++) remaining[t] += block.counts[t];
+                    if (stopped) break;
+                }
+                chosenRows.remove(chosenRows.size() - 1);
+                stock[r]++;
+                if (stopped) return;
+            }
+        }
+
+        private static boolean fitsIn(Block block, int[] remaining) {
+            for (int t = 0; t < remaining.length; t++) {
+                if (block.counts[t] > remaining[t]) return false;
+            }
+            return true;
+        }
+
+        private double lowerBound(int[] remaining, int[] stock) {
+            List<Panel> panels = new ArrayList<>();
+            for (int t = 0; t < remaining.length; t++) {
+                if (remaining[t] == 0) continue;
+                Panel type = types.get(t);
+                panels.add(new Panel(type.getLength(), type.getWidth(), remaining[t], type.getLabel()));
+            }
+            List<StockSheet> left = new ArrayList<>();
+            for (int r = 0; r < stock.length; r++) {
+                if (stock[r] == 0) continue;
+                StockSheet row = rows.get(r);
+                left.add(new StockSheet(row.getLength(), row.getWidth(), stock[r], row.getLabel(), row.getCost()));
+            }
+            return LowerBounds.of(panels, left).getSheetArea();
+        }
+
+        private boolean clockExpired() {
+            return System.nanoTime() > deadline || Thread.currentThread().isInterrupted() || Checkpoint.stopped();
+        }
+
+        OptimizationResult toResult() {
+            OptimizationResult result = new OptimizationResult();
+            PlacementStore placements = new PlacementStore(types, partCount());
+            double usedArea = 0.0;
+            for (int s = 0; s < solution.size(); s++) {
+                StockSheet row = rows.get(solutionRows.get(s));
+                StockSheet sheet = new StockSheet(row.getLength(), row.getWidth(), 1, row.getLabel(), row.getCost());
+                result.getUsedSheets().add(sheet);
+                result.setTotalArea(result.getTotalArea() + sheet.getLength() * sheet.getWidth());
+                Block block = solution.get(s);
+                usedArea += place(block, 0, 0, s, placements);
+
+                long sheetLength = Geometry.toMicros(sheet.getLength());
+                long sheetWidth = Geometry.toMicros(sheet.getWidth());
+                if (sheetLength > block.width) {
+                    result.getRectangles().add(new Rectangle(Geometry.toUnits(block.width), 0,
+                            Geometry.toUnits(sheetLength - block.width), sheet.getWidth(), s));
+                }
+                if (sheetWidth > block.height) {
+                    result.getRectangles().add(new Rectangle(0, Geometry.toUnits(block.height),
+                            Geometry.toUnits(block.width), Geometry.toUnits(sheetWidth - block.height), s));
+                }
+            }
+            result.setPlacements(placements);
+            result.setUsedArea(usedArea);
+            result.setTotalCuts(placements.size() * 2);
+            result.setWastePercentage((result.getTotalArea() - result.getUsedArea()) / result.getTotalArea() * 100);
+            return result;
+        }
+
+        private int partCount() {
+            int count = 0;
+            for (int q : quantity) count += q;
+            return count;
+        }
+
+        /**
+         * Lays the block's panels out with its corner at {@code (x, y)}; returns their area without kerf.
+         */
+        private double place(Block block, long x, long y, int sheet, PlacementStore placements) {
+            if (block.first == null) {
+                Panel panel = types.get(block.type);
+                placements.add(x, y, block.width, block.height, sheet, block.type, block.rotated);
+                return panel.getLength() * panel.getWidth();
+            }
+            double area = place(block.first, x, y, sheet, placements);
+            if (block.horizontal) {
+                return area + place(block.second, x + block.first.width, y, sheet, placements);
+            }
+            return area + place(block.second, x, y + block.first.height, sheet, placements);
+        }
+    }
+
+    /**
+     * What is left to do at a search node: the remaining panel counts and stock counts.
+     */
+    private static final class State {
+        private final long panels;
+        private final int[] stock;
+        private final int hash;
+
+        State(long panels, int[] stock) {
+            this.panels = panels;
+            this.stock = stock.clone();
+            this.hash = 31 * Long.hashCode(panels) + Arrays.hashCode(this.stock);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State)) return false;
+            State other = (State) o;
+            return panels == other.panels && Arrays.equals(stock, other.stock);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
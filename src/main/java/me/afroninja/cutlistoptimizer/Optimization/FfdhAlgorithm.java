@@ -0,0 +1,37 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Panel;
+
+import java.util.Comparator;
+
+/**
+ * First-fit decreasing height: panels sorted by width, each placed upright if any free rectangle can take
+ * it and turned otherwise. Leftover space is cut shelf-style, across the full width of the rectangle.
+ */
+public class FfdhAlgorithm extends FreeRectanglePacker {
+    @Override
+    protected Comparator<Panel> panelOrder() {
+        return (p1, p2) -> Double.compare(p2.getWidth(), p1.getWidth());
+    }
+
+    @Override
+    protected int choose(FreeRectangleIndex index, long panelLength, long panelWidth, boolean[] rotated) {
+        return firstOrientation(index, panelLength, panelWidth, rotated);
+    }
+
+    @Override
+    protected void split(FreeRectangleIndex index, long rectX, long rectY, long rectWidth, long rectHeight,
+                         long panelLength, long panelWidth, long kerf, int sheet) {
+        shelfSplit(index, rectX, rectY, rectWidth, rectHeight, panelLength, panelWidth, sheet);
+    }
+
+    static void shelfSplit(FreeRectangleIndex index, long rectX, long rectY, long rectWidth, long rectHeight,
+                           long panelLength, long panelWidth, int sheet) {
+        if (rectWidth > panelLength) {
+            index.insert(rectX + panelLength, rectY, rectWidth - panelLength, panelWidth, sheet);
+        }
+        if (rectHeight > panelWidth) {
+            index.insert(rectX, rectY + panelWidth, rectWidth, rectHeight - panelWidth, sheet);
+        }
+    }
+}
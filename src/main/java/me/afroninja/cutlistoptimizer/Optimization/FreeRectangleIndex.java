@@ -0,0 +1,258 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Geometry;
+import me.afroninja.cutlistoptimizer.Model.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Free space of a packing run, kept in a treap ordered by width, then height. Every node also stores the
+ * tallest height in its subtree, which lets {@link #findBestFit} and {@link #findTightestFit} skip whole
+ * subtrees that cannot hold the panel. Insert, remove and best-fit lookups are O(log n) expected.
+ * <p>
+ * Rectangles are addressed by int handles into parallel primitive arrays; removed slots are recycled, so a
+ * run does not allocate once the arrays have grown to the peak free-rectangle count. Sizes are
+ * {@link Geometry} micro-units, so lookups compare exactly.
+ */
+public class FreeRectangleIndex {
+    public static final int NONE = -1;
+
+    private long[] x;
+    private long[] y;
+    private long[] width;
+    private long[] height;
+    private long[] maxHeight;
+    private int[] sheet;
+    private int[] left;
+    private int[] right;
+    private int[] priority;
+
+    private final Random random = new Random(0x5EED);
+    private int root = NONE;
+    private int size;
+    private int capacity;
+    private int nextUnused;
+    private int freeSlots = NONE;
+    private int peakSize;
+    private long fitTests;
+    // Best rectangle so far of the running findTightestFit walk
+    private int tightestNode;
+    private long tightestSum;
+
+    public FreeRectangleIndex() {
+        this(64);
+    }
+
+    public FreeRectangleIndex(int initialCapacity) {
+        capacity = Math.max(initialCapacity, 4);
+        x = new long[capacity];
+        y = new long[capacity];
+        width = new long[capacity];
+        height = new long[capacity];
+        maxHeight = new long[capacity];
+        sheet = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        priority = new int[capacity];
+    }
+
+    public int insert(long rectX, long rectY, long rectWidth, long rectHeight, int sheetIndex) {
+        int node = allocate();
+        sheet[node] = sheetIndex;
+        x[node] = rectX;
+        y[node] = rectY;
+        width[node] = rectWidth;
+        height[node] = rectHeight;
+        maxHeight[node] = rectHeight;
+        left[node] = NONE;
+        right[node] = NONE;
+        priority[node] = random.nextInt();
+        root = insert(root, node);
+        size++;
+        if (size > peakSize) peakSize = size;
+        return node;
+    }
+
+    public void remove(int node) {
+        root = remove(root, node);
+        left[node] = freeSlots;
+        freeSlots = node;
+        size--;
+    }
+
+    /**
+     * Returns the narrowest free rectangle at least {@code minWidth} wide and {@code minHeight} high (the
+     * shortest of those on a tie), or {@link #NONE}.
+     */
+    public int findBestFit(long minWidth, long minHeight) {
+        return findBestFit(root, minWidth, minHeight);
+    }
+
+    /**
+     * Returns the free rectangle at least {@code minWidth} wide and {@code minHeight} high that leaves the
+     * least width plus height over (the narrowest of those on a tie), or {@link #NONE}. Rectangles are visited
+     * from the narrowest up, and the walk stops at the first width that could no longer leave less over.
+     */
+    public int findTightestFit(long minWidth, long minHeight) {
+        tightestNode = NONE;
+        tightestSum = Long.MAX_VALUE;
+        findTightestFit(root, minWidth, minHeight);
+        return tightestNode;
+    }
+
+    public long getX(int node) { return x[node]; }
+    public long getY(int node) { return y[node]; }
+    public long getWidth(int node) { return width[node]; }
+    public long getHeight(int node) { return height[node]; }
+    public int getSheet(int node) { return sheet[node]; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int getPeakSize() { return peakSize; }
+    public long getFitTests() { return fitTests; }
+
+    public List<Rectangle> toRectangles() {
+        List<Rectangle> rectangles = new ArrayList<>(size);
+        collect(root, rectangles);
+        return rectangles;
+    }
+
+    private int findBestFit(int node, long minWidth, long minHeight) {
+        while (node != NONE && maxHeight[node] >= minHeight) {
+            fitTests++;
+            if (width[node] < minWidth) {
+                node = right[node];
+                continue;
+            }
+            int inLeft = findBestFit(left[node], minWidth, minHeight);
+            if (inLeft != NONE) return inLeft;
+            if (Geometry.fits(width[node], height[node], minWidth, minHeight)) return node;
+            node = right[node];
+        }
+        return NONE;
+    }
+
+    /**
+     * Visits the subtree in width order; false once no wider rectangle can beat the best one found.
+     */
+    private boolean findTightestFit(int node, long minWidth, long minHeight) {
+        while (node != NONE && maxHeight[node] >= minHeight) {
+            fitTests++;
+            if (width[node] < minWidth) {
+                node = right[node];
+                continue;
+            }
+            if (!findTightestFit(left[node], minWidth, minHeight)) return false;
+            if (width[node] + minHeight >= tightestSum) return false;
+            if (Geometry.fits(width[node], height[node], minWidth, minHeight)) {
+                long sum = width[node] + height[node];
+                if (sum < tightestSum) {
+                    tightestSum = sum;
+                    tightestNode = node;
+                }
+            }
+            node = right[node];
+        }
+        return true;
+    }
+
+    private int insert(int tree, int node) {
+        if (tree == NONE) return node;
+        if (less(node, tree)) {
+            left[tree] = insert(left[tree], node);
+            if (priority[left[tree]] > priority[tree]) tree = rotateRight(tree);
+        } else {
+            right[tree] = insert(right[tree], node);
+            if (priority[right[tree]] > priority[tree]) tree = rotateLeft(tree);
+        }
+        update(tree);
+        return tree;
+    }
+
+    private int remove(int tree, int node) {
+        if (tree == NONE) throw new IllegalArgumentException("Rectangle " + node + " is not in the index");
+        if (tree == node) return merge(left[tree], right[tree]);
+        if (less(node, tree)) {
+            left[tree] = remove(left[tree], node);
+        } else {
+            right[tree] = remove(right[tree], node);
+        }
+        update(tree);
+        return tree;
+    }
+
+    private int merge(int a, int b) {
+        if (a == NONE) return b;
+        if (b == NONE) return a;
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+
+    private int rotateRight(int tree) {
+        int pivot = left[tree];
+        left[tree] = right[pivot];
+        right[pivot] = tree;
+        update(tree);
+        return pivot;
+    }
+
+    private int rotateLeft(int tree) {
+        int pivot = right[tree];
+        right[tree] = left[pivot];
+        left[pivot] = tree;
+        update(tree);
+        return pivot;
+    }
+
+    private void update(int node) {
+        long max = height[node];
+        if (left[node] != NONE && maxHeight[left[node]] > max) max = maxHeight[left[node]];
+        if (right[node] != NONE && maxHeight[right[node]] > max) max = maxHeight[right[node]];
+        maxHeight[node] = max;
+    }
+
+    private boolean less(int a, int b) {
+        if (width[a] != width[b]) return width[a] < width[b];
+        if (height[a] != height[b]) return height[a] < height[b];
+        return a < b;
+    }
+
+    private void collect(int node, List<Rectangle> out) {
+        if (node == NONE) return;
+        collect(left[node], out);
+        out.add(new Rectangle(Geometry.toUnits(x[node]), Geometry.toUnits(y[node]),
+                Geometry.toUnits(width[node]), Geometry.toUnits(height[node]), sheet[node]));
+        collect(right[node], out);
+    }
+
+    private int allocate() {
+        if (freeSlots != NONE) {
+            int node = freeSlots;
+            freeSlots = left[node];
+            return node;
+        }
+        if (nextUnused == capacity) grow();
+        return nextUnused++;
+    }
+
+    private void grow() {
+        capacity *= 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        maxHeight = Arrays.copyOf(maxHeight, capacity);
+        sheet = Arrays.copyOf(sheet, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+    }
+}
@@ -0,0 +1,173 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Geometry;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import me.afroninja.cutlistoptimizer.Model.StrategyMetrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Shared driver of the free-rectangle strategies. Panel types are taken in {@link #panelOrder()}; for each
+ * one the driver asks {@link #choose} for a free rectangle and fills it with as many remaining copies of
+ * the type as fit, in a grid. The leftover space is handed back to the {@link FreeRectangleIndex} by
+ * {@link #split}, so the work per type grows with the number of grids placed, not with its quantity.
+ * <p>
+ * A new sheet is opened only when no free rectangle on the sheets used so far can hold the panel in either
+ * orientation; if the panel does not fit the fresh sheet either, its remaining copies are reported as one
+ * unplaced row.
+ */
+abstract class FreeRectanglePacker implements PackingAlgorithm {
+    private static final DoubleSupplier NO_LIMIT = () -> Double.POSITIVE_INFINITY;
+
+    protected abstract Comparator<Panel> panelOrder();
+
+    /**
+     * Picks the free rectangle for a panel of the given size, kerf included, in micro-units. Returns the
+     * handle, or {@link FreeRectangleIndex#NONE}; sets {@code rotated[0]} when the panel goes in turned by
+     * 90 degrees.
+     */
+    protected abstract int choose(FreeRectangleIndex index, long panelLength, long panelWidth, boolean[] rotated);
+
+    /**
+     * Hands the space left over by a block of panels placed in the top-left corner of the given rectangle
+     * back to the index. The rectangle itself has already been removed.
+     */
+    protected abstract void split(FreeRectangleIndex index, long rectX, long rectY, long rectWidth, long rectHeight,
+                                  long panelLength, long panelWidth, long kerf, int sheet);
+
+    @Override
+    public OptimizationResult pack(List<Panel> panels, List<StockSheet> sheets, double cutThickness) {
+        List<Panel> panelTypes = new ArrayList<>(panels);
+        panelTypes.sort(panelOrder());
+        return decode(panelTypes, null, sheets, cutThickness);
+    }
+
+    /**
+     * Packs the panel types in exactly the given order, taking stock rows in the given order. Types flagged
+     * in {@code turnFirst} (may be {@code null}) are offered to {@link #choose} turned by 90 degrees first.
+     * Used as the decoder of {@link AnytimeSearch}, which searches over these three inputs.
+     */
+    OptimizationResult decode(List<Panel> panelTypes, boolean[] turnFirst, List<StockSheet> sheets, double cutThickness) {
+        return decode(panelTypes, turnFirst, sheets, cutThickness, NO_LIMIT);
+    }
+
+    /**
+     * As above, but gives up and returns {@code null} as soon as the stock opened so far reaches the area
+     * limit, read again at every new sheet. Used by {@link MultiStartSearch} to drop runs that can no longer
+     * beat the incumbent.
+     */
+    OptimizationResult decode(List<Panel> panelTypes, boolean[] turnFirst, List<StockSheet> sheets, double cutThickness,
+                              DoubleSupplier areaLimit) {
+        OptimizationResult result = new OptimizationResult();
+        FreeRectangleIndex index = new FreeRectangleIndex();
+        StockPool stock = new StockPool(sheets);
+        long kerf = Geometry.toMicros(cutThickness);
+        boolean[] rotated = new boolean[1];
+
+        int totalQuantity = 0;
+        double demandArea = 0.0;
+        for (Panel panel : panelTypes) {
+            totalQuantity += Math.max(panel.getQuantity(), 0);
+            demandArea += Math.max(panel.getQuantity(), 0) * panel.getLength() * panel.getWidth();
+        }
+        PlacementStore placements = new PlacementStore(panelTypes, totalQuantity);
+        double usedArea = 0.0;
+        double openedArea = 0.0;
+
+        for (int type = 0; type < panelTypes.size(); type++) {
+            Panel panel = panelTypes.get(type);
+            boolean turned = turnFirst != null && turnFirst[type];
+            long panelLength = Geometry.toMicros(turned ? panel.getWidth() : panel.getLength()) + kerf;
+            long panelWidth = Geometry.toMicros(turned ? panel.getLength() : panel.getWidth()) + kerf;
+            int remaining = Math.max(panel.getQuantity(), 0);
+            if (remaining > 0 && (panelLength <= 0 || panelWidth <= 0)) {
+                // A panel without size cannot be cut; report it rather than divide by zero below
+                result.getUnplacedPanels().add(new Panel(panel.getLength(), panel.getWidth(), remaining, panel.getLabel()));
+                continue;
+            }
+
+            while (remaining > 0) {
+                Checkpoint.check();
+                int rect = choose(index, panelLength, panelWidth, rotated);
+                StockSheet opened = rect == FreeRectangleIndex.NONE
+                        ? stock.next(panelLength, panelWidth, demandArea - usedArea) : null;
+                if (opened != null) {
+                    openedArea += opened.getLength() * opened.getWidth();
+                    if (openedArea >= areaLimit.getAsDouble()) return null;
+                    openSheet(result, index, opened);
+                    rect = choose(index, panelLength, panelWidth, rotated);
+                }
+                if (rect == FreeRectangleIndex.NONE) {
+                    result.getUnplacedPanels().add(new Panel(panel.getLength(), panel.getWidth(), remaining, panel.getLabel()));
+                    break;
+                }
+
+                long placedLength = rotated[0] ? panelWidth : panelLength;
+                long placedWidth = rotated[0] ? panelLength : panelWidth;
+                long rectX = index.getX(rect);
+                long rectY = index.getY(rect);
+                long rectWidth = index.getWidth(rect);
+                long rectHeight = index.getHeight(rect);
+                int sheet = index.getSheet(rect);
+                index.remove(rect);
+
+                int columns = (int) Math.min(rectWidth / placedLength, remaining);
+                int rows = (int) Math.min(rectHeight / placedWidth, (remaining + columns - 1) / columns);
+                int count = Math.min(remaining, columns * rows);
+
+                for (int k = 0; k < count; k++) {
+                    placements.add(rectX + (k % columns) * placedLength, rectY + (k / columns) * placedWidth,
+                            placedLength, placedWidth, sheet, type, rotated[0] != turned);
+                }
+                int lastRow = count - (rows - 1) * columns;
+                if (lastRow < columns) {
+                    index.insert(rectX + lastRow * placedLength, rectY + (rows - 1) * placedWidth,
+                            (columns - lastRow) * placedLength, placedWidth, sheet);
+                }
+                split(index, rectX, rectY, rectWidth, rectHeight, columns * placedLength, rows * placedWidth, kerf, sheet);
+
+                remaining -= count;
+                usedArea += count * panel.getLength() * panel.getWidth();
+            }
+        }
+
+        for (StockSheet sheet : result.getUsedSheets()) {
+            result.setTotalArea(result.getTotalArea() + (sheet.getLength() * sheet.getWidth()));
+        }
+        result.setPlacements(placements);
+        result.setUsedArea(usedArea);
+        result.setTotalCuts(placements.size() * 2);
+        result.getRectangles().addAll(index.toRectangles());
+        result.setWastePercentage((result.getTotalArea() - result.getUsedArea()) / result.getTotalArea() * 100);
+        StrategyMetrics metrics = new StrategyMetrics();
+        metrics.setPeakFreeRectangles(index.getPeakSize());
+        metrics.setFitTests(index.getFitTests());
+        result.setMetrics(metrics);
+        return result;
+    }
+
+    private static void openSheet(OptimizationResult result, FreeRectangleIndex index, StockSheet sheet) {
+        result.getUsedSheets().add(sheet);
+        index.insert(0, 0, Geometry.toMicros(sheet.getLength()), Geometry.toMicros(sheet.getWidth()),
+                result.getUsedSheets().size() - 1);
+    }
+
+    /**
+     * First orientation that fits anywhere wins; used by the first-fit strategies.
+     */
+    static int firstOrientation(FreeRectangleIndex index, long panelLength, long panelWidth, boolean[] rotated) {
+        int rect = index.findBestFit(panelLength, panelWidth);
+        rotated[0] = false;
+        if (rect == FreeRectangleIndex.NONE) {
+            rect = index.findBestFit(panelWidth, panelLength);
+            rotated[0] = rect != FreeRectangleIndex.NONE;
+        }
+        return rect;
+    }
+}
@@ -0,0 +1,33 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Panel;
+
+import java.util.Comparator;
+
+/**
+ * Guillotine packing: panels sorted by area, each placed by first fit. The free rectangle is cut along the
+ * panel's length first, keeping the full-height strip to the right, and leftovers no wider than one saw
+ * kerf are dropped.
+ */
+public class GuillotineAlgorithm extends FreeRectanglePacker {
+    @Override
+    protected Comparator<Panel> panelOrder() {
+        return (p1, p2) -> Double.compare(p2.getLength() * p2.getWidth(), p1.getLength() * p1.getWidth());
+    }
+
+    @Override
+    protected int choose(FreeRectangleIndex index, long panelLength, long panelWidth, boolean[] rotated) {
+        return firstOrientation(index, panelLength, panelWidth, rotated);
+    }
+
+    @Override
+    protected void split(FreeRectangleIndex index, long rectX, long rectY, long rectWidth, long rectHeight,
+                         long panelLength, long panelWidth, long kerf, int sheet) {
+        if (rectWidth - panelLength > kerf) {
+            index.insert(rectX + panelLength, rectY, rectWidth - panelLength, rectHeight, sheet);
+        }
+        if (rectHeight - panelWidth > kerf) {
+            index.insert(rectX, rectY + panelWidth, panelLength, rectHeight - panelWidth, sheet);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Re-optimizes an edited cut list without starting over. The previous result is diffed against the new job
+ * by panel type (length, width and label): sheets that hold copies of a removed or shrunk type are released,
+ * as is the least filled sheet when copies were added, and only the released sheets are repacked together
+ * with the new demand and any copies the previous result left unplaced. All other sheets are kept exactly as
+ * they were.
+ * <p>
+ * Each incremental result is compared with the last full run; once the waste has drifted more than the
+ * tolerance above it, or the stock, kerf, algorithm set or search budget changed, a full run is done instead.
+ */
+public class IncrementalOptimizer {
+    public static final double DEFAULT_WASTE_TOLERANCE = 2.0;
+
+    private final PackingEngine engine;
+    private final double wasteTolerance;
+
+    private OptimizationJob lastJob;
+    private OptimizationResult lastResult;
+    private double baselineWaste;
+
+    public IncrementalOptimizer(PackingEngine engine) {
+        this(engine, DEFAULT_WASTE_TOLERANCE);
+    }
+
+    public IncrementalOptimizer(PackingEngine engine, double wasteTolerance) {
+        this.engine = engine;
+        this.wasteTolerance = wasteTolerance;
+    }
+
+    public synchronized OptimizationResult optimizeFully(OptimizationJob job, OptimizationListener listener) {
+        OptimizationResult result = engine.optimize(job, listener);
+        if (result != null && !listener.isCancelled()) {
+            lastJob = job;
+            lastResult = result;
+            baselineWaste = result.getWastePercentage();
+        }
+        return result;
+    }
+
+    public synchronized OptimizationResult update(OptimizationJob job, OptimizationListener listener) {
+        if (lastResult == null || !sameStockAndOptions(lastJob, job)) {
+            return optimizeFully(job, listener);
+        }
+        OptimizationResult result = repack(job, listener);
+        if (result == null || listener.isCancelled()) {
+            return result;
+        }
+        if (result.getWastePercentage() > baselineWaste + wasteTolerance) {
+            return optimizeFully(job, listener);
+        }
+        lastJob = job;
+        lastResult = result;
+        return result;
+    }
+
+    public synchronized void reset() {
+        lastJob = null;
+        lastResult = null;
+    }
+
+    private OptimizationResult repack(OptimizationJob job, OptimizationListener listener) {
+        PlacementStore previous = lastResult.getPlacements();
+        List<StockSheet> previousSheets = lastResult.getUsedSheets();
+        int sheetCount = previousSheets.size();
+
+        // Demand of the edited job and where the previous result put each type
+        Map<String, Panel> typesByKey = new LinkedHashMap<>();
+        Map<String, Integer> demand = new HashMap<>();
+        for (Panel panel : job.getPanels()) {
+            if (panel.getQuantity() <= 0) continue;
+            String key = typeKey(panel);
+            typesByKey.putIfAbsent(key, panel);
+            demand.merge(key, panel.getQuantity(), Integer::sum);
+        }
+        Map<String, Integer> previousDemand = new HashMap<>();
+        for (Panel panel : lastJob.getPanels()) {
+            if (panel.getQuantity() > 0) previousDemand.merge(typeKey(panel), panel.getQuantity(), Integer::sum);
+        }
+        List<Panel> previousTypes = previous.getPanelTypes();
+        String[] previousKeys = new String[previousTypes.size()];
+        for (int i = 0; i < previousKeys.length; i++) {
+            previousKeys[i] = typeKey(previousTypes.get(i));
+        }
+        int[][] copiesPerSheet = new int[previousKeys.length][sheetCount];
+        int[] placedPerType = new int[previousKeys.length];
+        for (int i = 0; i < previous.size(); i++) {
+            copiesPerSheet[previous.getPanelType(i)][previous.getSheet(i)]++;
+            placedPerType[previous.getPanelType(i)]++;
+        }
+
+        // Release sheets from the back until every over-supplied type is back within its demand
+        boolean[] released = new boolean[sheetCount];
+        Map<String, Integer> placedByKey = new HashMap<>();
+        for (int type = 0; type < previousKeys.length; type++) {
+            placedByKey.merge(previousKeys[type], placedPerType[type], Integer::sum);
+        }
+        for (int type = 0; type < previousKeys.length; type++) {
+            int excess = placedByKey.get(previousKeys[type]) - demand.getOrDefault(previousKeys[type], 0);
+            for (int sheet = sheetCount - 1; sheet >= 0 && excess > 0; sheet--) {
+                if (copiesPerSheet[type][sheet] > 0 && !released[sheet]) {
+                    released[sheet] = true;
+                    excess -= copiesPerSheet[type][sheet];
+                }
+            }
+        }
+
+        Map<String, Integer> kept = new HashMap<>();
+        double[] keptArea = new double[sheetCount];
+        for (int i = 0; i < previous.size(); i++) {
+            if (released[previous.getSheet(i)]) continue;
+            Panel type = previousTypes.get(previous.getPanelType(i));
+            kept.merge(previousKeys[previous.getPanelType(i)], 1, Integer::sum);
+            keptArea[previous.getSheet(i)] += type.getLength() * type.getWidth();
+        }
+        // Only copies added by the edit make room on a kept sheet; copies left unplaced last time are
+        // repacked with the rest without releasing anything
+        boolean shortfall = false;
+        for (Map.Entry<String, Integer> entry : demand.entrySet()) {
+            shortfall |= entry.getValue() > previousDemand.getOrDefault(entry.getKey(), 0);
+        }
+        if (shortfall) {
+            int leastFilled = -1;
+            double leastFill = Double.MAX_VALUE;
+            for (int sheet = 0; sheet < sheetCount; sheet++) {
+                StockSheet stock = previousSheets.get(sheet);
+                double fill = keptArea[sheet] / (stock.getLength() * stock.getWidth());
+                if (!released[sheet] && fill < leastFill) {
+                    leastFill = fill;
+                    leastFilled = sheet;
+                }
+            }
+            if (leastFilled >= 0) {
+                released[leastFilled] = true;
+                for (int i = 0; i < previous.size(); i++) {
+                    if (previous.getSheet(i) == leastFilled) {
+                        kept.merge(previousKeys[previous.getPanelType(i)], -1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        // Repack the released sheets' share of the demand on whatever stock the kept sheets leave over
+        List<Panel> repackPanels = new ArrayList<>();
+        for (Map.Entry<String, Panel> entry : typesByKey.entrySet()) {
+            int missing = demand.get(entry.getKey()) - kept.getOrDefault(entry.getKey(), 0);
+            if (missing > 0) {
+                Panel type = entry.getValue();
+                repackPanels.add(new Panel(type.getLength(), type.getWidth(), missing, type.getLabel()));
+            }
+        }
+        Map<String, Integer> stockInUse = new HashMap<>();
+        for (int sheet = 0; sheet < sheetCount; sheet++) {
+            if (!released[sheet]) stockInUse.merge(stockKey(previousSheets.get(sheet)), 1, Integer::sum);
+        }
+        List<StockSheet> repackStock = new ArrayList<>();
+        for (StockSheet row : job.getStockSheets()) {
+            int inUse = stockInUse.getOrDefault(stockKey(row), 0);
+            int left = row.getQuantity() - inUse;
+            stockInUse.put(stockKey(row), Math.max(inUse - row.getQuantity(), 0));
+            if (left > 0) repackStock.add(new StockSheet(row.getLength(), row.getWidth(), left, row.getLabel(), row.getCost()));
+        }
+
+        OptimizationResult repacked = repackPanels.isEmpty() ? new OptimizationResult()
+                : engine.optimize(new OptimizationJob(repackPanels, repackStock, job.getCutThickness(), job.getAlgorithms()), listener);
+        if (repacked == null) {
+            return null;
+        }
+        OptimizationResult merged = merge(lastResult, released, repacked);
+        merged.setLowerBoundArea(LowerBounds.of(job.getPanels(), job.getStockSheets()).getSheetArea());
+        return merged;
+    }
+
+    /**
+     * Kept sheets of the previous result first, in their old order, then the repacked sheets. Placements keep
+     * their sheet-local coordinates; only their sheet index changes.
+     */
+    private static OptimizationResult merge(OptimizationResult previous, boolean[] released, OptimizationResult repacked) {
+        OptimizationResult merged = new OptimizationResult();
+        List<StockSheet> previousSheets = previous.getUsedSheets();
+        int[] newIndex = new int[previousSheets.size()];
+        for (int sheet = 0; sheet < previousSheets.size(); sheet++) {
+            newIndex[sheet] = released[sheet] ? -1 : merged.getUsedSheets().size();
+            if (!released[sheet]) merged.getUsedSheets().add(previousSheets.get(sheet));
+        }
+        int repackedOffset = merged.getUsedSheets().size();
+        merged.getUsedSheets().addAll(repacked.getUsedSheets());
+
+        PlacementStore oldPlacements = previous.getPlacements();
+        PlacementStore newPlacements = repacked.getPlacements();
+        List<Panel> types = new ArrayList<>();
+        int[] oldTypeIndex = remapTypes(oldPlacements, newIndex, types);
+        int[] newTypeIndex = remapTypes(newPlacements, null, types);
+        PlacementStore placements = new PlacementStore(types, oldPlacements.size() + newPlacements.size());
+        double usedArea = 0.0;
+        for (int i = 0; i < oldPlacements.size(); i++) {
+            int sheet = newIndex[oldPlacements.getSheet(i)];
+            if (sheet < 0) continue;
+            placements.add(oldPlacements.getXMicros(i), oldPlacements.getYMicros(i),
+                    oldPlacements.getWidthMicros(i), oldPlacements.getHeightMicros(i), sheet, oldTypeIndex[oldPlacements.getPanelType(i)], oldPlacements.isRotated(i));
+            usedArea += area(oldPlacements.getPanel(i));
+        }
+        for (int i = 0; i < newPlacements.size(); i++) {
+            int sheet = repackedOffset + newPlacements.getSheet(i);
+            placements.add(newPlacements.getXMicros(i), newPlacements.getYMicros(i),
+                    newPlacements.getWidthMicros(i), newPlacements.getHeightMicros(i), sheet, newTypeIndex[newPlacements.getPanelType(i)], newPlacements.isRotated(i));
+            usedArea += area(newPlacements.getPanel(i));
+        }
+
+        // Free space of the kept sheets is not known any more, so the merged result carries none
+        merged.setPlacements(placements);
+        merged.getUnplacedPanels().addAll(repacked.getUnplacedPanels());
+        merged.setUsedArea(usedArea);
+        for (StockSheet sheet : merged.getUsedSheets()) {
+            merged.setTotalArea(merged.getTotalArea() + (sheet.getLength() * sheet.getWidth()));
+        }
+        merged.setTotalCuts(placements.size() * 2);
+        merged.setWastePercentage((merged.getTotalArea() - merged.getUsedArea()) / merged.getTotalArea() * 100);
+        merged.setCustomData(repacked.getCustomData());
+        merged.setStrategyMetrics(repacked.getStrategyMetrics());
+        return merged;
+    }
+
+    /**
+     * Appends the panel types still used by the placements on surviving sheets to {@code types} and returns
+     * the old-to-new type index mapping; a null {@code sheetIndex} keeps every sheet.
+     */
+    private static int[] remapTypes(PlacementStore placements, int[] sheetIndex, List<Panel> types) {
+        int[] mapping = new int[placements.getPanelTypes().size()];
+        Arrays.fill(mapping, -1);
+        for (int i = 0; i < placements.size(); i++) {
+            int type = placements.getPanelType(i);
+            if (mapping[type] < 0 && (sheetIndex == null || sheetIndex[placements.getSheet(i)] >= 0)) {
+                mapping[type] = types.size();
+                types.add(placements.getPanelTypes().get(type));
+            }
+        }
+        return mapping;
+    }
+
+    private static boolean sameStockAndOptions(OptimizationJob previous, OptimizationJob job) {
+        if (previous.getCutThickness() != job.getCutThickness() || !previous.getAlgorithms().equals(job.getAlgorithms())
+                || !previous.getSearchBudget().equals(job.getSearchBudget())) {
+            return false;
+        }
+        if (previous.getStockSheets().size() != job.getStockSheets().size()) {
+            return false;
+        }
+        for (int i = 0; i < job.getStockSheets().size(); i++) {
+            StockSheet a = previous.getStockSheets().get(i);
+            StockSheet b = job.getStockSheets().get(i);
+            if (!stockKey(a).equals(stockKey(b)) || a.getQuantity() != b.getQuantity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double area(Panel panel) {
+        return panel.getLength() * panel.getWidth();
+    }
+
+    private static String typeKey(Panel panel) {
+        return panel.getLength() + "x" + panel.getWidth() + ":" + panel.getLabel();
+    }
+
+    private static String stockKey(StockSheet sheet) {
+        return sheet.getLength() + "x" + sheet.getWidth() + ":" + sheet.getLabel() + "$" + sheet.getCost();
+    }
+}
@@ -0,0 +1,169 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lower bounds on the stock a job needs if every panel is placed, and so on the waste any layout can reach.
+ * The sheet count is the larger of
+ * <ul>
+ *   <li>the continuous bound: the fewest sheets, largest first, whose area covers the panel area, and</li>
+ *   <li>a Martello–Vigo style L2 bound adapted to rotation: panels whose short side is more than half the
+ *   longest sheet side can never share a sheet, and for every threshold {@code a} the panels whose short side
+ *   is at least {@code a} cannot fit beside a large panel that leaves a strip narrower than {@code a}, so
+ *   their area must go into the other large panels' sheets or onto sheets of their own.</li>
+ * </ul>
+ * The sheet area bound is the panel area or the area of that many of the smallest available sheets, whichever
+ * is larger. Kerf is ignored, which keeps every bound valid.
+ */
+public final class LowerBounds {
+    private static final double EPSILON = 1e-9;
+
+    private final double demandArea;
+    private final int sheetCount;
+    private final double sheetArea;
+
+    private LowerBounds(double demandArea, int sheetCount, double sheetArea) {
+        this.demandArea = demandArea;
+        this.sheetCount = sheetCount;
+        this.sheetArea = sheetArea;
+    }
+
+    public static LowerBounds of(List<Panel> panels, List<StockSheet> stockSheets) {
+        double demandArea = 0.0;
+        List<Panel> types = new ArrayList<>();
+        for (Panel panel : panels) {
+            if (panel.getQuantity() <= 0) continue;
+            types.add(panel);
+            demandArea += panel.getQuantity() * panel.getLength() * panel.getWidth();
+        }
+
+        List<StockSheet> stock = new ArrayList<>();
+        int available = 0;
+        double longestSide = 0.0;
+        double largestArea = 0.0;
+        for (StockSheet sheet : stockSheets) {
+            if (sheet.getQuantity() <= 0) continue;
+            stock.add(sheet);
+            available += sheet.getQuantity();
+            longestSide = Math.max(longestSide, Math.max(sheet.getLength(), sheet.getWidth()));
+            largestArea = Math.max(largestArea, sheet.getLength() * sheet.getWidth());
+        }
+        if (types.isEmpty() || stock.isEmpty() || demandArea <= 0) {
+            return new LowerBounds(demandArea, 0, demandArea);
+        }
+
+        int count = Math.max(continuousBound(stock, demandArea), l2Bound(types, longestSide, largestArea));
+        count = Math.min(count, available);
+
+        // The cheapest way to open that many sheets is to take the smallest ones
+        stock.sort(Comparator.comparingDouble(sheet -> sheet.getLength() * sheet.getWidth()));
+        double smallestSheets = 0.0;
+        int taken = 0;
+        for (StockSheet sheet : stock) {
+            int take = Math.min(sheet.getQuantity(), count - taken);
+            smallestSheets += take * sheet.getLength() * sheet.getWidth();
+            taken += take;
+            if (taken == count) break;
+        }
+        return new LowerBounds(demandArea, count, Math.max(demandArea, smallestSheets));
+    }
+
+    /**
+     * Fewest sheets whose combined area covers the demand, taking the largest sheets first.
+     */
+    static int continuousBound(List<StockSheet> stock, double demandArea) {
+        List<StockSheet> largestFirst = new ArrayList<>(stock);
+        largestFirst.sort(Comparator.comparingDouble((StockSheet sheet) -> sheet.getLength() * sheet.getWidth()).reversed());
+        double covered = 0.0;
+        int count = 0;
+        for (StockSheet sheet : largestFirst) {
+            double area = sheet.getLength() * sheet.getWidth();
+            if (area <= 0) break;
+            int needed = (int) Math.min(sheet.getQuantity(), Math.ceil((demandArea - covered) / area - EPSILON));
+            covered += needed * area;
+            count += needed;
+            if (covered >= demandArea - EPSILON) break;
+        }
+        return count;
+    }
+
+    /**
+     * L2 bound, evaluated at every distinct short side of the small panels as the threshold.
+     */
+    static int l2Bound(List<Panel> types, double longestSide, double largestArea) {
+        List<Panel> large = new ArrayList<>();
+        List<Panel> small = new ArrayList<>();
+        int largeCount = 0;
+        for (Panel panel : types) {
+            if (shortSide(panel) > longestSide / 2) {
+                large.add(panel);
+                largeCount += panel.getQuantity();
+            } else {
+                small.add(panel);
+            }
+        }
+        // Large panels by the widest strip they leave free, small ones by short side, both descending
+        large.sort(Comparator.comparingDouble((Panel panel) -> longestSide - shortSide(panel)).reversed());
+        small.sort(Comparator.comparingDouble(LowerBounds::shortSide).reversed());
+
+        int best = largeCount;
+        double smallArea = 0.0;
+        long openLarge = 0;
+        double openLargeArea = 0.0;
+        int nextLarge = 0;
+        for (int i = 0; i < small.size(); i++) {
+            Panel panel = small.get(i);
+            smallArea += panel.getQuantity() * panel.getLength() * panel.getWidth();
+            double threshold = shortSide(panel);
+            if (i + 1 < small.size() && shortSide(small.get(i + 1)) == threshold) continue;
+
+            while (nextLarge < large.size() && longestSide - shortSide(large.get(nextLarge)) >= threshold) {
+                Panel open = large.get(nextLarge++);
+                openLarge += open.getQuantity();
+                openLargeArea += open.getQuantity() * open.getLength() * open.getWidth();
+            }
+            double overflow = smallArea - (openLarge * largestArea - openLargeArea);
+            int bound = largeCount + (overflow > 0 ? (int) Math.ceil(overflow / largestArea - EPSILON) : 0);
+            best = Math.max(best, bound);
+        }
+        return best;
+    }
+
+    private static double shortSide(Panel panel) {
+        return Math.min(panel.getLength(), panel.getWidth());
+    }
+
+    public double getDemandArea() { return demandArea; }
+    public int getSheetCount() { return sheetCount; }
+    public double getSheetArea() { return sheetArea; }
+
+    public double getWastePercentage() {
+        return sheetArea > 0 ? (sheetArea - demandArea) / sheetArea * 100 : 0.0;
+    }
+
+    /**
+     * Whether the result places every panel on no more stock area than the bound, which proves it optimal.
+     */
+    public boolean isReachedBy(OptimizationResult result) {
+        return result != null && result.getUnplacedPanels().isEmpty() && sheetArea > 0
+                && result.getTotalArea() <= sheetArea * (1 + EPSILON);
+    }
+
+    /**
+     * Stock area above the bound as a percentage of the result's stock area.
+     */
+    public static double gapPercentage(double totalArea, double boundArea) {
+        return totalArea > 0 ? Math.max(totalArea - boundArea, 0.0) / totalArea * 100 : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LowerBounds[sheets=%d, area=%.1f, waste=%.2f%%]", sheetCount, sheetArea, getWastePercentage());
+    }
+}
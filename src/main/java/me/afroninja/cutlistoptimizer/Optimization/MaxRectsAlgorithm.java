@@ -0,0 +1,355 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Geometry;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.Rectangle;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import me.afroninja.cutlistoptimizer.Model.StrategyMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MaxRects packing: every sheet keeps the list of maximal free rectangles, which may overlap. Placing a
+ * panel splits each free rectangle it intersects into up to four maximal pieces; only those new pieces are
+ * checked for containment, since an older rectangle cannot lie inside a piece of another older one.
+ * <p>
+ * Panels are taken one copy at a time, largest area first, and placed on the first open sheet where they
+ * fit, at the position the {@link Heuristic} scores best there. Once a copy no longer fits a sheet, later
+ * copies of that type skip it, as free space only shrinks. For the same reason each sheet remembers the
+ * last panel it could not take, and passes over every panel at least as large in both sides without a
+ * scan; it also tracks its widest and tallest free rectangle. Sheets that cannot take even the smallest
+ * panel of the job are not visited again.
+ */
+public class MaxRectsAlgorithm implements PackingAlgorithm {
+    public enum Heuristic {
+        /** Least leftover along the shorter side, then along the longer side. */
+        BEST_SHORT_SIDE,
+        /** Smallest free rectangle, then least leftover along the shorter side. */
+        BEST_AREA,
+        /** Longest perimeter touching the sheet edges and placed panels. */
+        CONTACT_POINT
+    }
+
+    private final Heuristic heuristic;
+
+    public MaxRectsAlgorithm(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public OptimizationResult pack(List<Panel> panels, List<StockSheet> sheets, double cutThickness) {
+        List<Panel> panelTypes = new ArrayList<>(panels);
+        panelTypes.sort((p1, p2) -> {
+            int byArea = Double.compare(p2.getLength() * p2.getWidth(), p1.getLength() * p1.getWidth());
+            return byArea != 0 ? byArea : Double.compare(Math.max(p2.getLength(), p2.getWidth()),
+                    Math.max(p1.getLength(), p1.getWidth()));
+        });
+
+        OptimizationResult result = new OptimizationResult();
+        StockPool stock = new StockPool(sheets);
+        long kerf = Geometry.toMicros(cutThickness);
+        int totalQuantity = 0;
+        long smallestSide = Long.MAX_VALUE;
+        double demandArea = 0.0;
+        for (Panel panel : panelTypes) {
+            totalQuantity += Math.max(panel.getQuantity(), 0);
+            demandArea += Math.max(panel.getQuantity(), 0) * panel.getLength() * panel.getWidth();
+            smallestSide = Math.min(smallestSide, Geometry.toMicros(Math.min(panel.getLength(), panel.getWidth())) + kerf);
+        }
+        PlacementStore placements = new PlacementStore(panelTypes, totalQuantity);
+        List<SheetSpace> open = new ArrayList<>();
+        long[] best = new long[3];
+        double usedArea = 0.0;
+        int freeCount = 0;
+        int peakFree = 0;
+        long fitTests = 0;
+        int firstLive = 0;
+
+        for (int type = 0; type < panelTypes.size(); type++) {
+            Panel panel = panelTypes.get(type);
+            long panelLength = Geometry.toMicros(panel.getLength()) + kerf;
+            long panelWidth = Geometry.toMicros(panel.getWidth()) + kerf;
+            int remaining = Math.max(panel.getQuantity(), 0);
+            if (remaining > 0 && (panelLength <= 0 || panelWidth <= 0)) {
+                result.getUnplacedPanels().add(new Panel(panel.getLength(), panel.getWidth(), remaining, panel.getLabel()));
+                continue;
+            }
+
+            while (firstLive < open.size() && !open.get(firstLive).mayHold(smallestSide, smallestSide)) {
+                firstLive++;
+            }
+            int fromSheet = firstLive;
+            while (remaining > 0) {
+                Checkpoint.check();
+                int free = -1;
+                while (fromSheet < open.size()) {
+                    SheetSpace space = open.get(fromSheet);
+                    if (space.mayHold(panelLength, panelWidth)) {
+                        fitTests += space.count;
+                        free = space.findPosition(panelLength, panelWidth, heuristic, best);
+                        if (free >= 0) break;
+                    }
+                    fromSheet++;
+                }
+                StockSheet sheet = free < 0 ? stock.next(panelLength, panelWidth, demandArea - usedArea) : null;
+                if (sheet != null) {
+                    result.getUsedSheets().add(sheet);
+                    open.add(new SheetSpace(Geometry.toMicros(sheet.getLength()), Geometry.toMicros(sheet.getWidth())));
+                    freeCount++;
+                    fromSheet = open.size() - 1;
+                    free = open.get(fromSheet).findPosition(panelLength, panelWidth, heuristic, best);
+                }
+                if (free < 0) {
+                    result.getUnplacedPanels().add(new Panel(panel.getLength(), panel.getWidth(), remaining, panel.getLabel()));
+                    break;
+                }
+
+                SheetSpace space = open.get(fromSheet);
+                boolean rotated = best[2] != 0;
+                long placedLength = rotated ? panelWidth : panelLength;
+                long placedWidth = rotated ? panelLength : panelWidth;
+                long x = space.x[free];
+                long y = space.y[free];
+                placements.add(x, y, placedLength, placedWidth, fromSheet, type, rotated);
+                freeCount -= space.count;
+                space.place(x, y, placedLength, placedWidth);
+                freeCount += space.count;
+                if (freeCount > peakFree) peakFree = freeCount;
+                remaining--;
+                usedArea += panel.getLength() * panel.getWidth();
+            }
+        }
+
+        for (StockSheet sheet : result.getUsedSheets()) {
+            result.setTotalArea(result.getTotalArea() + (sheet.getLength() * sheet.getWidth()));
+        }
+        for (int s = 0; s < open.size(); s++) {
+            SheetSpace space = open.get(s);
+            for (int i = 0; i < space.count; i++) {
+                result.getRectangles().add(new Rectangle(Geometry.toUnits(space.x[i]), Geometry.toUnits(space.y[i]),
+                        Geometry.toUnits(space.width[i]), Geometry.toUnits(space.height[i]), s));
+            }
+        }
+        result.setPlacements(placements);
+        result.setUsedArea(usedArea);
+        result.setTotalCuts(placements.size() * 2);
+        result.setWastePercentage((result.getTotalArea() - result.getUsedArea()) / result.getTotalArea() * 100);
+        StrategyMetrics metrics = new StrategyMetrics();
+        metrics.setPeakFreeRectangles(peakFree);
+        metrics.setFitTests(fitTests);
+        result.setMetrics(metrics);
+        return result;
+    }
+
+    /**
+     * Free rectangles and placed panels of one sheet, in parallel arrays of micro-units. Removal swaps the
+     * last rectangle into the hole, so order carries no meaning.
+     */
+    private static final class SheetSpace {
+        private final long sheetWidth;
+        private final long sheetHeight;
+        private long[] x = new long[16];
+        private long[] y = new long[16];
+        private long[] width = new long[16];
+        private long[] height = new long[16];
+        private int count;
+        private long widest;
+        private long tallest;
+        private long failShort = Long.MAX_VALUE;
+        private long failLong = Long.MAX_VALUE;
+        private long[] usedX = new long[16];
+        private long[] usedY = new long[16];
+        private long[] usedWidth = new long[16];
+        private long[] usedHeight = new long[16];
+        private int usedCount;
+
+        SheetSpace(long sheetWidth, long sheetHeight) {
+            this.sheetWidth = sheetWidth;
+            this.sheetHeight = sheetHeight;
+            add(0, 0, sheetWidth, sheetHeight);
+            widest = sheetWidth;
+            tallest = sheetHeight;
+        }
+
+        /**
+         * False when no free rectangle can hold the panel in either orientation; true does not promise one
+         * can.
+         */
+        boolean mayHold(long panelLength, long panelWidth) {
+            long shortSide = Math.min(panelLength, panelWidth);
+            long longSide = Math.max(panelLength, panelWidth);
+            if (shortSide >= failShort && longSide >= failLong) return false;
+            return (widest >= panelLength && tallest >= panelWidth) || (widest >= panelWidth && tallest >= panelLength);
+        }
+
+        /**
+         * Index of the best free rectangle for the panel in either orientation, or -1. Puts the two scores
+         * in {@code best[0..1]} and 1 in {@code best[2]} if the panel is turned.
+         */
+        int findPosition(long panelLength, long panelWidth, Heuristic heuristic, long[] best) {
+            int found = -1;
+            best[0] = Long.MAX_VALUE;
+            best[1] = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                long w = width[i];
+                long h = height[i];
+                if (w >= panelLength && h >= panelWidth && better(i, panelLength, panelWidth, heuristic, best)) {
+                    found = i;
+                    best[2] = 0;
+                }
+                if (w >= panelWidth && h >= panelLength && better(i, panelWidth, panelLength, heuristic, best)) {
+                    found = i;
+                    best[2] = 1;
+                }
+            }
+            if (found < 0) {
+                failShort = Math.min(panelLength, panelWidth);
+                failLong = Math.max(panelLength, panelWidth);
+            }
+            return found;
+        }
+
+        private boolean better(int i, long w, long h, Heuristic heuristic, long[] best) {
+            long leftoverX = width[i] - w;
+            long leftoverY = height[i] - h;
+            long primary;
+            long secondary;
+            switch (heuristic) {
+                case BEST_AREA:
+                    primary = width[i] / 1000 * (height[i] / 1000) - w / 1000 * (h / 1000);
+                    secondary = Math.min(leftoverX, leftoverY);
+                    break;
+                case CONTACT_POINT:
+                    primary = -contact(x[i], y[i], w, h);
+                    secondary = y[i];
+                    break;
+                default:
+                    primary = Math.min(leftoverX, leftoverY);
+                    secondary = Math.max(leftoverX, leftoverY);
+            }
+            if (primary > best[0] || (primary == best[0] && secondary >= best[1])) return false;
+            best[0] = primary;
+            best[1] = secondary;
+            return true;
+        }
+
+        private long contact(long px, long py, long w, long h) {
+            long score = 0;
+            if (px == 0 || px + w == sheetWidth) score += h;
+            if (py == 0 || py + h == sheetHeight) score += w;
+            for (int j = 0; j < usedCount; j++) {
+                if (usedX[j] == px + w || usedX[j] + usedWidth[j] == px) {
+                    score += overlap(usedY[j], usedY[j] + usedHeight[j], py, py + h);
+                }
+                if (usedY[j] == py + h || usedY[j] + usedHeight[j] == py) {
+                    score += overlap(usedX[j], usedX[j] + usedWidth[j], px, px + w);
+                }
+            }
+            return score;
+        }
+
+        private static long overlap(long start1, long end1, long start2, long end2) {
+            return Math.max(0, Math.min(end1, end2) - Math.max(start1, start2));
+        }
+
+        /**
+         * Takes the panel's box out of the free space: splits every free rectangle it overlaps into maximal
+         * pieces, then drops the pieces that lie inside another free rectangle.
+         */
+        void place(long px, long py, long w, long h) {
+            if (usedCount == usedX.length) {
+                int capacity = usedCount * 2;
+                usedX = Arrays.copyOf(usedX, capacity);
+                usedY = Arrays.copyOf(usedY, capacity);
+                usedWidth = Arrays.copyOf(usedWidth, capacity);
+                usedHeight = Arrays.copyOf(usedHeight, capacity);
+            }
+            usedX[usedCount] = px;
+            usedY[usedCount] = py;
+            usedWidth[usedCount] = w;
+            usedHeight[usedCount] = h;
+            usedCount++;
+
+            long right = px + w;
+            long bottom = py + h;
+            // Untouched rectangles stay in [0, kept); pieces of split ones are appended after them
+            int kept = count;
+            for (int i = 0; i < kept; i++) {
+                long fx = x[i];
+                long fy = y[i];
+                long fRight = fx + width[i];
+                long fBottom = fy + height[i];
+                if (px >= fRight || right <= fx || py >= fBottom || bottom <= fy) continue;
+
+                if (px > fx) add(fx, fy, px - fx, height[i]);
+                if (right < fRight) add(right, fy, fRight - right, height[i]);
+                if (py > fy) add(fx, fy, width[i], py - fy);
+                if (bottom < fBottom) add(fx, bottom, width[i], fBottom - bottom);
+
+                kept--;
+                moveTo(kept, i);
+                moveTo(count - 1, kept);
+                count--;
+                i--;
+            }
+            prune(kept);
+            widest = 0;
+            tallest = 0;
+            for (int i = 0; i < count; i++) {
+                if (width[i] > widest) widest = width[i];
+                if (height[i] > tallest) tallest = height[i];
+            }
+        }
+
+        /**
+         * Drops every piece in {@code [from, count)} contained in another free rectangle. Equal pieces are
+         * kept once.
+         */
+        private void prune(int from) {
+            for (int i = from; i < count; i++) {
+                long ix = x[i];
+                long iy = y[i];
+                long iRight = ix + width[i];
+                long iBottom = iy + height[i];
+                for (int j = 0; j < count; j++) {
+                    if (j == i) continue;
+                    if (x[j] <= ix && y[j] <= iy && x[j] + width[j] >= iRight && y[j] + height[j] >= iBottom) {
+                        // Of two equal pieces, only the later one goes
+                        if (j < from || x[j] != ix || y[j] != iy || width[j] != width[i] || height[j] != height[i] || j < i) {
+                            moveTo(count - 1, i);
+                            count--;
+                            i--;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void add(long rectX, long rectY, long rectWidth, long rectHeight) {
+            if (count == x.length) {
+                int capacity = count * 2;
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                width = Arrays.copyOf(width, capacity);
+                height = Arrays.copyOf(height, capacity);
+            }
+            x[count] = rectX;
+            y[count] = rectY;
+            width[count] = rectWidth;
+            height[count] = rectHeight;
+            count++;
+        }
+
+        private void moveTo(int from, int to) {
+            x[to] = x[from];
+            y[to] = y[from];
+            width[to] = width[from];
+            height[to] = height[from];
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs many randomized restarts of the free-rectangle strategies on a work-stealing pool. Each start perturbs
+ * a strategy's own panel order with random nearby swaps, turns some types and shuffles the stock rows, then
+ * decodes the result with {@link FreeRectanglePacker#decode}.
+ * <p>
+ * Workers share the best layout so far through a lock-free incumbent that is only ever replaced by a better
+ * one by {@link PackingEngine#isBetter}, the engine's own ranking (compare-and-set on waste, then cuts), so
+ * every layout it reports is one the engine keeps. Once the incumbent places every panel, a run is abandoned
+ * as soon as the stock it has opened reaches the incumbent's total area: every panel still has to go
+ * somewhere, so its sheet area can only grow from there and its waste can no longer be lower.
+ * <p>
+ * Listener callbacks are made from the calling thread only, which polls the incumbent while the pool works
+ * and stops the starts once the listener cancels; starts in progress stop at their next {@link Checkpoint}.
+ */
+public class MultiStartSearch {
+    public static final String NAME = "Multi-start";
+
+    private static final long POLL_MILLIS = 20;
+    private static final double TURN_PROBABILITY = 0.2;
+    private static final int SWAP_WINDOW = 4;
+
+    private final List<FreeRectanglePacker> decoders;
+    private final ForkJoinPool pool;
+    private final long seed;
+
+    MultiStartSearch(List<FreeRectanglePacker> decoders, ForkJoinPool pool, long seed) {
+        this.decoders = decoders;
+        this.pool = pool;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the job's number of starts and returns the best layout found, or {@code start} itself if none
+     * beat it. Cancelling through the listener, reaching the lower bound, or running for {@code timeLimitMillis}
+     * (unless zero) stops the remaining starts.
+     */
+    public OptimizationResult search(OptimizationJob job, OptimizationResult start, LowerBounds bounds,
+                                     long timeLimitMillis, OptimizationListener listener) {
+        int starts = job.getSearchBudget().getStarts();
+        List<Panel> types = new ArrayList<>();
+        for (Panel panel : job.getPanels()) {
+            if (panel.getQuantity() > 0) types.add(panel);
+        }
+        if (starts == 0 || types.isEmpty() || decoders.isEmpty() || bounds.isReachedBy(start)) {
+            return start;
+        }
+
+        AtomicReference<OptimizationResult> incumbent = new AtomicReference<>(start);
+        AtomicBoolean stopped = new AtomicBoolean();
+        AtomicInteger completed = new AtomicInteger();
+        Starts task = new Starts(0, starts, types, job.getStockSheets(), job.getCutThickness(), bounds, incumbent, stopped, completed);
+        long startNanos = System.nanoTime();
+        long timeLimitNanos = timeLimitMillis * 1_000_000;
+        ForkJoinTask<Void> running = pool.submit(task);
+
+        OptimizationResult reported = start;
+        try {
+            while (true) {
+                try {
+                    running.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    long elapsedNanos = System.nanoTime() - startNanos;
+                    if (listener.isCancelled() || (timeLimitNanos > 0 && elapsedNanos >= timeLimitNanos)) {
+                        stopped.set(true);
+                    }
+                    OptimizationResult best = incumbent.get();
+                    if (best != reported) {
+                        reported = best;
+                        listener.improved(best);
+                    }
+                    double progress = (double) completed.get() / starts;
+                    if (timeLimitNanos > 0) progress = Math.max(progress, (double) elapsedNanos / timeLimitNanos);
+                    listener.searchProgress(Math.min(progress, 1.0));
+                }
+            }
+        } catch (InterruptedException e) {
+            stopped.set(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Multi-start search failed", e.getCause());
+        }
+
+        OptimizationResult best = incumbent.get();
+        if (best != reported) {
+            listener.improved(best);
+        }
+        listener.searchProgress(1.0);
+        return best;
+    }
+
+    private static int unplacedCount(OptimizationResult result) {
+        int count = 0;
+        for (Panel panel : result.getUnplacedPanels()) {
+            count += panel.getQuantity();
+        }
+        return count;
+    }
+
+    /**
+     * A range of start indices, split in halves until one start is left so idle workers can steal the rest.
+     */
+    private final class Starts extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final List<Panel> types;
+        private final List<StockSheet> stockRows;
+        private final double cutThickness;
+        private final LowerBounds bounds;
+        private final AtomicReference<OptimizationResult> incumbent;
+        private final AtomicBoolean stopped;
+        private final AtomicInteger completed;
+
+        Starts(int from, int to, List<Panel> types, List<StockSheet> stockRows, double cutThickness, LowerBounds bounds,
+               AtomicReference<OptimizationResult> incumbent, AtomicBoolean stopped, AtomicInteger completed) {
+            this.from = from;
+            this.to = to;
+            this.types = types;
+            this.stockRows = stockRows;
+            this.cutThickness = cutThickness;
+            this.bounds = bounds;
+            this.incumbent = incumbent;
+            this.stopped = stopped;
+            this.completed = completed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Starts(from, mid, types, stockRows, cutThickness, bounds, incumbent, stopped, completed),
+                        new Starts(mid, to, types, stockRows, cutThickness, bounds, incumbent, stopped, completed));
+                return;
+            }
+            if (stopped.get()) return;
+            OptimizationResult result;
+            try {
+                // Installed so a cancelled search also stops the start in progress at its next check
+                result = Checkpoint.run(stopped::get, () -> runStart(from));
+            } catch (CancellationException e) {
+                return;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            completed.incrementAndGet();
+            if (result == null) return;
+            OptimizationResult best = incumbent.get();
+            while (PackingEngine.isBetter(result, best) && !incumbent.compareAndSet(best, result)) {
+                best = incumbent.get();
+            }
+            if (bounds.isReachedBy(incumbent.get())) {
+                stopped.set(true);
+            }
+        }
+
+        private OptimizationResult runStart(int startIndex) {
+            SplittableRandom random = new SplittableRandom(seed + startIndex * 0x9E3779B97F4A7C15L);
+            FreeRectanglePacker decoder = decoders.get(startIndex % decoders.size());
+
+            List<Panel> ordered = new ArrayList<>(types);
+            ordered.sort(decoder.panelOrder());
+            for (int i = 0; i < ordered.size() - 1; i++) {
+                int j = Math.min(i + 1 + random.nextInt(SWAP_WINDOW), ordered.size() - 1);
+                if (random.nextBoolean()) {
+                    ordered.set(j, ordered.set(i, ordered.get(j)));
+                }
+            }
+            boolean[] turnFirst = new boolean[ordered.size()];
+            for (int i = 0; i < turnFirst.length; i++) {
+                turnFirst[i] = random.nextDouble() < TURN_PROBABILITY;
+            }
+            List<StockSheet> stock = new ArrayList<>(stockRows);
+            for (int i = stock.size() - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                stock.set(j, stock.set(i, stock.get(j)));
+            }
+
+            return decoder.decode(ordered, turnFirst, stock, cutThickness, () -> {
+                OptimizationResult best = incumbent.get();
+                return best == null || unplacedCount(best) > 0 ? Double.POSITIVE_INFINITY : best.getTotalArea();
+            });
+        }
+    }
+}
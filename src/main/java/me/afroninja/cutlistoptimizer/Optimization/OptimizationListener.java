@@ -0,0 +1,26 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+
+/**
+ * Callbacks from {@link PackingEngine} while a job runs. All methods are invoked on the engine's
+ * thread; UI clients are responsible for handing the data over to their own thread.
+ */
+public interface OptimizationListener {
+    OptimizationListener NONE = new OptimizationListener() { };
+
+    default void algorithmCompleted(String algorithm, OptimizationResult result, OptimizationResult best,
+                                    int completedSteps, int totalSteps) { }
+
+    /**
+     * A better layout was found by one of the searches that follow the strategies.
+     */
+    default void improved(OptimizationResult best) { }
+
+    /**
+     * Share of the search budget used so far, from 0 to 1, over all of the job's searches.
+     */
+    default void searchProgress(double fraction) { }
+
+    default boolean isCancelled() { return false; }
+}
@@ -0,0 +1,56 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs optimization jobs one at a time, latest wins. Submitting a job cancels the one before it, whether it
+ * is still waiting or already running, and the new job only starts after a short quiet period, so a burst of
+ * clicks or edits runs once, for the last of them. Cancelling a running job only marks its task cancelled:
+ * the job's listener reports that, its portfolio abandons the strategies still running, and they stop at
+ * their next {@link Checkpoint}, keeping the single worker free for the job that replaced them.
+ */
+class OptimizationScheduler {
+    private final ScheduledThreadPoolExecutor executor;
+    private final long debounceMillis;
+    private RunnableFuture<?> current;
+    private ScheduledFuture<?> scheduled;
+
+    OptimizationScheduler(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "optimizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Cancels the previous job and schedules {@code job} to run after the quiet period.
+     */
+    synchronized void submit(RunnableFuture<?> job) {
+        cancel();
+        current = job;
+        scheduled = executor.schedule(job, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels {@code job} if it has not started yet; a running job is left to finish.
+     */
+    synchronized void cancelIfWaiting(RunnableFuture<?> job) {
+        if (job == current && scheduled.cancel(false)) {
+            job.cancel(false);
+        }
+    }
+
+    private void cancel() {
+        if (current == null) return;
+        scheduled.cancel(false);
+        current.cancel(false);
+        current = null;
+        scheduled = null;
+    }
+}
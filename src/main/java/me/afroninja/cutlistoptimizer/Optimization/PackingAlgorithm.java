@@ -0,0 +1,17 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.List;
+
+/**
+ * A single packing strategy. Panels and stock sheets are passed as rows with a quantity each; strategies
+ * track remaining counts themselves and must not modify the rows. They may reorder the given lists, so
+ * callers pass each strategy its own copies.
+ */
+@FunctionalInterface
+public interface PackingAlgorithm {
+    OptimizationResult pack(List<Panel> panels, List<StockSheet> sheets, double cutThickness);
+}
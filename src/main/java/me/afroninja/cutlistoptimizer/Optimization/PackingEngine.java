@@ -0,0 +1,250 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.SearchBudget;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import me.afroninja.cutlistoptimizer.Model.StrategyMetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Headless entry point of the optimizer. Takes an {@link OptimizationJob}, runs the requested strategies
+ * and returns the best {@link OptimizationResult}. Has no JavaFX dependency, so it can be embedded in batch
+ * jobs or servers and called repeatedly from any thread.
+ */
+public class PackingEngine {
+    public static final String FFDH = "FFDH";
+    public static final String BFDH = "BFDH";
+    public static final String GUILLOTINE = "Guillotine";
+    public static final String SHEET_PARALLEL = "Sheet-parallel";
+    public static final String MAXRECTS = "MaxRects";
+    public static final String MAXRECTS_AREA = "MaxRects best area";
+    public static final String MAXRECTS_CONTACT = "MaxRects contact point";
+    public static final String SKYLINE = "Skyline";
+    public static final String SKYLINE_BOTTOM_LEFT = "Skyline bottom-left";
+    public static final String EXACT = "Exact guillotine";
+    public static final String PATTERN = "Pattern table";
+
+    private static final long EXACT_TIME_LIMIT_MILLIS = 1000;
+    private static final int PATTERN_CACHE_ENTRIES = 32;
+
+    private static final long SEARCH_SEED = 0x5EEDL;
+    // Share of a wall-clock search budget the restarts may use before the annealing search takes the rest
+    private static final double RESTART_TIME_SHARE = 0.25;
+
+    private final Map<String, PackingAlgorithm> algorithms = new LinkedHashMap<>();
+    private final List<String> defaultNames = new ArrayList<>();
+    private final PortfolioExecutor portfolio;
+    private final ForkJoinPool searchPool;
+    private final PatternAlgorithm patternAlgorithm = new PatternAlgorithm(new PatternCache(PATTERN_CACHE_ENTRIES));
+    private volatile ResultCache resultCache;
+
+    public PackingEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public PackingEngine(ExecutorService executor) {
+        this.portfolio = new PortfolioExecutor(executor);
+        this.searchPool = executor instanceof ForkJoinPool ? (ForkJoinPool) executor : ForkJoinPool.commonPool();
+        register(FFDH, new FfdhAlgorithm());
+        register(BFDH, new BfdhAlgorithm());
+        register(GUILLOTINE, new GuillotineAlgorithm());
+        register(MAXRECTS, new MaxRectsAlgorithm(MaxRectsAlgorithm.Heuristic.BEST_SHORT_SIDE));
+        register(MAXRECTS_AREA, new MaxRectsAlgorithm(MaxRectsAlgorithm.Heuristic.BEST_AREA));
+        // Scores every candidate against the sheet's placed panels, so it is too slow for large jobs by default
+        register(MAXRECTS_CONTACT, new MaxRectsAlgorithm(MaxRectsAlgorithm.Heuristic.CONTACT_POINT), false);
+        register(SKYLINE, new SkylineAlgorithm(SkylineAlgorithm.Heuristic.MIN_WASTE));
+        register(SKYLINE_BOTTOM_LEFT, new SkylineAlgorithm(SkylineAlgorithm.Heuristic.BOTTOM_LEFT));
+        register(EXACT, new ExactGuillotineAlgorithm(EXACT_TIME_LIMIT_MILLIS));
+        register(PATTERN, patternAlgorithm);
+        register(SHEET_PARALLEL, new SheetParallelPacker(searchPool), false);
+    }
+
+    public void register(String name, PackingAlgorithm algorithm) {
+        register(name, algorithm, true);
+    }
+
+    /**
+     * Registers an algorithm that, unless {@code byDefault}, only runs for jobs that name it.
+     */
+    public void register(String name, PackingAlgorithm algorithm, boolean byDefault) {
+        algorithms.put(name, algorithm);
+        defaultNames.remove(name);
+        if (byDefault) defaultNames.add(name);
+    }
+
+    /**
+     * Answers repeat jobs from the given cache, and stores every completed run in it; {@code null} disables
+     * caching.
+     */
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Shares the tables of the pattern table strategy through the given cache; {@code null} builds them for
+     * every run. A memory-only cache is set by default.
+     */
+    public void setPatternCache(PatternCache patternCache) {
+        patternAlgorithm.setCache(patternCache);
+    }
+
+    public PatternCache getPatternCache() {
+        return patternAlgorithm.getCache();
+    }
+
+    public Set<String> getAlgorithmNames() {
+        return Collections.unmodifiableSet(algorithms.keySet());
+    }
+
+    public OptimizationResult optimize(OptimizationJob job) {
+        return optimize(job, OptimizationListener.NONE);
+    }
+
+    /**
+     * Runs every algorithm named in the job (or all default ones if the job names none) in parallel and
+     * returns the result with the least waste, ties broken by fewer cuts and then by registration order. The
+     * per-algorithm results are attached as the winner's custom data. If the job has a search budget, a
+     * {@link MultiStartSearch} and then an {@link AnytimeSearch} try to improve on the winner until the budget
+     * is spent or the listener cancels; a wall-clock budget is shared by both, the restarts taking at most a
+     * quarter of it. Everything stops as soon as a result reaches the job's
+     * {@link LowerBounds}, since it is then provably optimal, and the search is skipped when the winner was
+     * {@linkplain OptimizationResult#isProvenOptimal() proven optimal} by an exact strategy, since its
+     * decoders only build guillotine layouts. Every run's {@link StrategyMetrics} are collected
+     * on the returned result. Results of completed runs are shared through the result cache, if one is set,
+     * so the same instance can go to several callers at once, on any thread: callers must not modify it.
+     */
+    public OptimizationResult optimize(OptimizationJob job, OptimizationListener listener) {
+        List<Panel> panelsToOptimize = new ArrayList<>(job.getPanels());
+        List<StockSheet> availableSheets = new ArrayList<>(job.getStockSheets());
+        List<String> names = job.getAlgorithms().isEmpty() ? new ArrayList<>(defaultNames) : job.getAlgorithms();
+
+        LowerBounds bounds = LowerBounds.of(job.getPanels(), job.getStockSheets());
+        ResultCache cache = resultCache;
+        String fingerprint = cache == null ? null : ResultCache.fingerprint(job, names);
+        if (cache != null) {
+            // Shared with every other caller, so returned as stored: it was cached complete, lower bound included
+            OptimizationResult cached = cache.get(fingerprint);
+            if (cached != null) return cached;
+        }
+
+        Map<String, PackingAlgorithm> strategies = new LinkedHashMap<>();
+        for (String name : names) {
+            strategies.put(name, getAlgorithm(name));
+        }
+        Map<String, OptimizationResult> resultsByAlgorithm =
+                portfolio.run(strategies, panelsToOptimize, availableSheets, job.getCutThickness(), listener, bounds::isReachedBy);
+
+        OptimizationResult best = null;
+        for (OptimizationResult result : resultsByAlgorithm.values()) {
+            if (isBetter(result, best)) {
+                best = result;
+            }
+        }
+        if (best != null && job.getSearchBudget().isEnabled() && !listener.isCancelled() && !bounds.isReachedBy(best)
+                && !best.isProvenOptimal()) {
+            List<FreeRectanglePacker> decoders = new ArrayList<>();
+            for (PackingAlgorithm strategy : strategies.values()) {
+                if (strategy instanceof FreeRectanglePacker) decoders.add((FreeRectanglePacker) strategy);
+            }
+            SearchBudget budget = job.getSearchBudget();
+            long searchStartNanos = System.nanoTime();
+            long restartMillis = budget.isAnnealing() ? Math.round(budget.getTimeMillis() * RESTART_TIME_SHARE) : budget.getTimeMillis();
+            double restartShare = budget.isAnnealing() ? RESTART_TIME_SHARE : 1.0;
+            StrategyProbe restarts = StrategyProbe.start(MultiStartSearch.NAME);
+            OptimizationResult restarted = new MultiStartSearch(decoders, searchPool, SEARCH_SEED)
+                    .search(job, best, bounds, restartMillis, searchRange(listener, 0.0, restartShare));
+            if (restarted != best) {
+                resultsByAlgorithm.put(MultiStartSearch.NAME, restarts.finish(restarted));
+                if (isBetter(restarted, best)) best = restarted;
+            }
+            long leftMillis = budget.getTimeMillis() - (System.nanoTime() - searchStartNanos) / 1_000_000;
+            if (!listener.isCancelled() && (budget.getTimeMillis() == 0 || leftMillis > 0)) {
+                SearchBudget annealingBudget = new SearchBudget(Math.max(leftMillis, 0), budget.getIterations());
+                StrategyProbe annealing = StrategyProbe.start(AnytimeSearch.NAME);
+                OptimizationResult searched = new AnytimeSearch(decoders, SEARCH_SEED)
+                        .search(job, annealingBudget, best, bounds, searchRange(listener, restartShare, 1.0));
+                if (searched != best) {
+                    resultsByAlgorithm.put(AnytimeSearch.NAME, annealing.finish(searched));
+                    if (isBetter(searched, best)) best = searched;
+                }
+            }
+        }
+        if (best != null) {
+            best.setCustomData(resultsByAlgorithm);
+            Map<String, StrategyMetrics> snapshot = new LinkedHashMap<>();
+            for (Map.Entry<String, OptimizationResult> entry : resultsByAlgorithm.entrySet()) {
+                if (entry.getValue().getMetrics() != null) snapshot.put(entry.getKey(), entry.getValue().getMetrics());
+            }
+            best.setStrategyMetrics(snapshot);
+            best.setLowerBoundArea(bounds.getSheetArea());
+            boolean complete = resultsByAlgorithm.size() >= strategies.size() && !listener.isCancelled();
+            if (cache != null && (complete || bounds.isReachedBy(best))) {
+                cache.put(fingerprint, best);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * {@code listener} with the search progress it is given scaled into {@code [from, to]}, so the searches
+     * run one after another report one progress that only grows.
+     */
+    private static OptimizationListener searchRange(OptimizationListener listener, double from, double to) {
+        return new OptimizationListener() {
+            @Override
+            public void algorithmCompleted(String algorithm, OptimizationResult result, OptimizationResult best,
+                                           int completedSteps, int totalSteps) {
+                listener.algorithmCompleted(algorithm, result, best, completedSteps, totalSteps);
+            }
+
+            @Override
+            public void improved(OptimizationResult best) {
+                listener.improved(best);
+            }
+
+            @Override
+            public void searchProgress(double fraction) {
+                listener.searchProgress(from + (to - from) * fraction);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return listener.isCancelled();
+            }
+        };
+    }
+
+    /**
+     * Runs a single named algorithm on the job.
+     */
+    public OptimizationResult run(String name, OptimizationJob job) {
+        return getAlgorithm(name).pack(new ArrayList<>(job.getPanels()), new ArrayList<>(job.getStockSheets()), job.getCutThickness());
+    }
+
+    public static boolean isBetter(OptimizationResult candidate, OptimizationResult best) {
+        return best == null || candidate.getWastePercentage() < best.getWastePercentage() ||
+                (candidate.getWastePercentage() == best.getWastePercentage() && candidate.getTotalCuts() < best.getTotalCuts());
+    }
+
+    private PackingAlgorithm getAlgorithm(String name) {
+        PackingAlgorithm algorithm = algorithms.get(name);
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Unknown algorithm: " + name);
+        }
+        return algorithm;
+    }
+}
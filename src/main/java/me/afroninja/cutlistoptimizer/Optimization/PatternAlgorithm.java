@@ -0,0 +1,350 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Geometry;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import me.afroninja.cutlistoptimizer.Model.StrategyMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cuts each sheet to the best guillotine pattern of a {@link PatternTable}, taken from a shared
+ * {@link PatternCache} so jobs on the same stock with the same part sizes reuse it. Panels are grouped by size,
+ * ignoring orientation, and each sheet is laid out from the table for the sizes still needed. A pattern can ask
+ * for more of a size than is left; those cells, and the offcuts around every part, go into a waste map that is
+ * filled greedily, largest parts first, before the next sheet is taken. When more than a quarter of a sheet's
+ * pattern would be such cells, the table is looked up again for the sizes that remain.
+ * <p>
+ * A table is built for at most {@link #MAX_SIZES} sizes, those with the most area still to place; the others
+ * are left to the waste map until they are among them. Jobs with many sizes run out of one after another and
+ * need a table for nearly every sheet, so after {@link #MAX_LOOKUPS} tables the remaining sheets are filled
+ * from the waste map alone.
+ */
+public class PatternAlgorithm implements PackingAlgorithm {
+    static final int MAX_SIZES = 48;
+    static final int MAX_LOOKUPS = 32;
+    // Parts are valued at area to this power, so patterns favour large parts and leave the small ones to fill
+    // the last sheets
+    private static final double SIZE_PREFERENCE = 1.1;
+
+    private volatile PatternCache cache;
+
+    /**
+     * @param cache where tables are shared, or {@code null} to build them for every run
+     */
+    public PatternAlgorithm(PatternCache cache) {
+        this.cache = cache;
+    }
+
+    public void setCache(PatternCache cache) {
+        this.cache = cache;
+    }
+
+    public PatternCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public OptimizationResult pack(List<Panel> panels, List<StockSheet> sheets, double cutThickness) {
+        OptimizationResult result = new OptimizationResult();
+        long kerf = Geometry.toMicros(cutThickness);
+        Sizes sizes = new Sizes(panels, kerf, result);
+        PlacementStore placements = new PlacementStore(panels, sizes.total);
+        FreeRectangleIndex waste = new FreeRectangleIndex();
+        StockPool stock = new StockPool(sheets);
+        boolean[] rotated = new boolean[1];
+        double[] usedArea = new double[1];
+
+        PatternTable table = null;
+        int[] tableSizes = null;
+        long tableLength = -1;
+        long tableWidth = -1;
+        long tableLookups = 0;
+        int[] demand = new int[sizes.count];
+
+        while (sizes.left > 0 && stock.hasNext()) {
+            Checkpoint.check();
+            // A sheet for the largest size left, or failing that for the smallest
+            int largest = sizes.next(0, 1);
+            int smallest = sizes.next(sizes.count - 1, -1);
+            StockSheet next = stock.peek(sizes.longSide[largest], sizes.shortSide[largest], sizes.leftArea);
+            int chosen = largest;
+            if (next == null) {
+                next = stock.peek(sizes.longSide[smallest], sizes.shortSide[smallest], sizes.leftArea);
+                chosen = smallest;
+            }
+            if (next == null) break;
+            long sheetLength = Geometry.toMicros(next.getLength());
+            long sheetWidth = Geometry.toMicros(next.getWidth());
+            if (table == null || sheetLength != tableLength || sheetWidth != tableWidth
+                    || !worthFollowing(table, tableSizes, sizes, sheetLength, sheetWidth, demand)) {
+                tableSizes = sizes.forTable(sheetLength, sheetWidth);
+                if (tableSizes.length == 0) break;
+                table = tableLookups < MAX_LOOKUPS ? lookup(tableSizes, sizes, sheetLength, sheetWidth, kerf) : null;
+                tableLength = sheetLength;
+                tableWidth = sheetWidth;
+                tableLookups++;
+            }
+
+            StockSheet sheet = stock.next(sizes.longSide[chosen], sizes.shortSide[chosen], sizes.leftArea);
+            int sheetIndex = result.getUsedSheets().size();
+            result.getUsedSheets().add(sheet);
+            if (table == null) {
+                waste.insert(0, 0, sheetLength, sheetWidth, sheetIndex);
+            } else {
+                layout(table, tableSizes, sizes, sheetLength, sheetWidth, sheetIndex, panels, placements, waste, usedArea);
+            }
+
+            for (int size = 0; size < sizes.count && sizes.left > 0 && !waste.isEmpty(); size++) {
+                while (sizes.remaining[size] > 0) {
+                    Checkpoint.check();
+                    int rect = FreeRectanglePacker.firstOrientation(waste, sizes.longSide[size], sizes.shortSide[size], rotated);
+                    if (rect == FreeRectangleIndex.NONE) break;
+                    long placedLength = rotated[0] ? sizes.shortSide[size] : sizes.longSide[size];
+                    long placedWidth = rotated[0] ? sizes.longSide[size] : sizes.shortSide[size];
+                    long rectX = waste.getX(rect);
+                    long rectY = waste.getY(rect);
+                    long rectWidth = waste.getWidth(rect);
+                    long rectHeight = waste.getHeight(rect);
+                    int rectSheet = waste.getSheet(rect);
+                    waste.remove(rect);
+                    int type = sizes.take(size);
+                    placements.add(rectX, rectY, placedLength, placedWidth, rectSheet, type, sizes.rotated(type, rotated[0]));
+                    usedArea[0] += panels.get(type).getLength() * panels.get(type).getWidth();
+                    addWaste(waste, rectX + placedLength, rectY, rectWidth - placedLength, rectHeight, rectSheet, sizes.smallestSide);
+                    addWaste(waste, rectX, rectY + placedWidth, placedLength, rectHeight - placedWidth, rectSheet, sizes.smallestSide);
+                }
+            }
+        }
+
+        for (int size = 0; size < sizes.count; size++) {
+            for (int k = sizes.firstType[size]; k < sizes.firstType[size + 1]; k++) {
+                int type = sizes.types[k];
+                if (sizes.typeRemaining[type] > 0) {
+                    Panel panel = panels.get(type);
+                    result.getUnplacedPanels().add(new Panel(panel.getLength(), panel.getWidth(), sizes.typeRemaining[type], panel.getLabel()));
+                }
+            }
+        }
+        for (StockSheet sheet : result.getUsedSheets()) {
+            result.setTotalArea(result.getTotalArea() + (sheet.getLength() * sheet.getWidth()));
+        }
+        result.getRectangles().addAll(waste.toRectangles());
+        result.setPlacements(placements);
+        result.setUsedArea(usedArea[0]);
+        result.setTotalCuts(placements.size() * 2);
+        result.setWastePercentage((result.getTotalArea() - result.getUsedArea()) / result.getTotalArea() * 100);
+        StrategyMetrics metrics = new StrategyMetrics();
+        metrics.setPeakFreeRectangles(waste.getPeakSize());
+        metrics.setFitTests(waste.getFitTests());
+        result.setMetrics(metrics);
+        return result;
+    }
+
+    /**
+     * Places the table's pattern for a fresh sheet, sending the cells of sizes that have run out to the waste map.
+     */
+    private static void layout(PatternTable table, int[] tableSizes, Sizes sizes, long sheetLength, long sheetWidth,
+                               int sheetIndex, List<Panel> panels, PlacementStore placements, FreeRectangleIndex waste,
+                               double[] usedArea) {
+        table.layout(0, 0, sheetLength, sheetWidth, (x, y, cellWidth, cellHeight, column, turned) -> {
+            int size = tableSizes[column];
+            int type = sizes.take(size);
+            if (type < 0) {
+                waste.insert(x, y, cellWidth, cellHeight, sheetIndex);
+                return;
+            }
+            long placedLength = turned ? sizes.shortSide[size] : sizes.longSide[size];
+            long placedWidth = turned ? sizes.longSide[size] : sizes.shortSide[size];
+            placements.add(x, y, placedLength, placedWidth, sheetIndex, type, sizes.rotated(type, turned));
+            usedArea[0] += panels.get(type).getLength() * panels.get(type).getWidth();
+            addWaste(waste, x + placedLength, y, cellWidth - placedLength, cellHeight, sheetIndex, sizes.smallestSide);
+            addWaste(waste, x, y + placedWidth, placedLength, cellHeight - placedWidth, sheetIndex, sizes.smallestSide);
+        });
+    }
+
+    private PatternTable lookup(int[] tableSizes, Sizes sizes, long sheetLength, long sheetWidth, long kerf) {
+        long[] lengths = new long[tableSizes.length];
+        long[] widths = new long[tableSizes.length];
+        double[] values = new double[tableSizes.length];
+        for (int k = 0; k < tableSizes.length; k++) {
+            lengths[k] = sizes.longSide[tableSizes[k]];
+            widths[k] = sizes.shortSide[tableSizes[k]];
+            values[k] = Math.pow(sizes.area[tableSizes[k]], SIZE_PREFERENCE);
+        }
+        PatternCache cache = this.cache;
+        if (cache == null) return PatternTable.build(sheetLength, sheetWidth, lengths, widths, values);
+        return cache.get(sheetLength, sheetWidth, kerf, lengths, widths, values);
+    }
+
+    /**
+     * Whether at least three quarters of the table's pattern for the sheet, by area, is sizes still needed.
+     */
+    private static boolean worthFollowing(PatternTable table, int[] tableSizes, Sizes sizes, long sheetLength,
+                                          long sheetWidth, int[] demand) {
+        Arrays.fill(demand, 0);
+        double[] area = new double[2];
+        table.layout(0, 0, sheetLength, sheetWidth, (x, y, cellWidth, cellHeight, column, turned) -> {
+            int size = tableSizes[column];
+            area[0] += sizes.area[size];
+            if (demand[size]++ < sizes.remaining[size]) area[1] += sizes.area[size];
+        });
+        return area[1] * 4 >= area[0] * 3;
+    }
+
+    private static void addWaste(FreeRectangleIndex waste, long x, long y, long width, long height, int sheet,
+                                 long smallestSide) {
+        if (width >= smallestSide && height >= smallestSide) {
+            waste.insert(x, y, width, height, sheet);
+        }
+    }
+
+    /**
+     * The job's panel types grouped by size in micro-units with the kerf added, long side first. Sizes are
+     * sorted largest first, so that the same part sizes always give the same table and cache key.
+     */
+    private static final class Sizes {
+        private final int count;
+        private final long[] longSide;
+        private final long[] shortSide;
+        private final double[] area;
+        private final int[] remaining;
+        // Types of size s are types[firstType[s]] to types[firstType[s + 1] - 1]
+        private final int[] firstType;
+        private final int[] types;
+        private final int[] typeRemaining;
+        private final boolean[] typeTurned;
+        private final int[] cursor;
+        private final long smallestSide;
+        private final int total;
+        private int left;
+        private double leftArea;
+
+        Sizes(List<Panel> panels, long kerf, OptimizationResult result) {
+            int n = panels.size();
+            typeRemaining = new int[n];
+            typeTurned = new boolean[n];
+            long[] keyLong = new long[n];
+            long[] keyShort = new long[n];
+            List<Integer> order = new ArrayList<>();
+            int quantity = 0;
+            long smallest = Long.MAX_VALUE;
+            for (int type = 0; type < n; type++) {
+                Panel panel = panels.get(type);
+                long length = Geometry.toMicros(panel.getLength()) + kerf;
+                long width = Geometry.toMicros(panel.getWidth()) + kerf;
+                int copies = Math.max(panel.getQuantity(), 0);
+                if (copies == 0) continue;
+                if (length <= 0 || width <= 0) {
+                    result.getUnplacedPanels().add(new Panel(panel.getLength(), panel.getWidth(), copies, panel.getLabel()));
+                    continue;
+                }
+                typeRemaining[type] = copies;
+                typeTurned[type] = width > length;
+                keyLong[type] = Math.max(length, width);
+                keyShort[type] = Math.min(length, width);
+                smallest = Math.min(smallest, keyShort[type]);
+                quantity += copies;
+                order.add(type);
+            }
+            order.sort((a, b) -> {
+                int byLong = Long.compare(keyLong[b], keyLong[a]);
+                return byLong != 0 ? byLong : Long.compare(keyShort[b], keyShort[a]);
+            });
+
+            types = new int[order.size()];
+            int[] starts = new int[order.size() + 1];
+            long[] longs = new long[order.size()];
+            long[] shorts = new long[order.size()];
+            int sizeCount = 0;
+            for (int k = 0; k < order.size(); k++) {
+                int type = order.get(k);
+                types[k] = type;
+                if (sizeCount == 0 || longs[sizeCount - 1] != keyLong[type] || shorts[sizeCount - 1] != keyShort[type]) {
+                    starts[sizeCount] = k;
+                    longs[sizeCount] = keyLong[type];
+                    shorts[sizeCount] = keyShort[type];
+                    sizeCount++;
+                }
+            }
+            starts[sizeCount] = order.size();
+            count = sizeCount;
+            longSide = Arrays.copyOf(longs, count);
+            shortSide = Arrays.copyOf(shorts, count);
+            firstType = Arrays.copyOf(starts, count + 1);
+            area = new double[count];
+            remaining = new int[count];
+            cursor = new int[count];
+            for (int s = 0; s < count; s++) {
+                int type = types[firstType[s]];
+                Panel panel = panels.get(type);
+                area[s] = panel.getLength() * panel.getWidth();
+                cursor[s] = firstType[s];
+                for (int k = firstType[s]; k < firstType[s + 1]; k++) {
+                    remaining[s] += typeRemaining[types[k]];
+                }
+                leftArea += remaining[s] * area[s];
+            }
+            smallestSide = smallest;
+            total = quantity;
+            left = quantity;
+        }
+
+        /**
+         * Takes one copy of the given size, returning its panel type, or -1 if none is left.
+         */
+        int take(int size) {
+            if (remaining[size] == 0) return -1;
+            while (typeRemaining[types[cursor[size]]] == 0) cursor[size]++;
+            int type = types[cursor[size]];
+            typeRemaining[type]--;
+            remaining[size]--;
+            left--;
+            leftArea -= area[size];
+            return type;
+        }
+
+        /**
+         * The first size from {@code from}, stepping by {@code step}, with copies left; there must be one.
+         */
+        int next(int from, int step) {
+            int size = from;
+            while (remaining[size] == 0) size += step;
+            return size;
+        }
+
+        /**
+         * Whether a type placed with its size's long side across ({@code !turned}) or along the sheet's width is
+         * rotated against the panel as entered.
+         */
+        boolean rotated(int type, boolean turned) {
+            return turned != typeTurned[type];
+        }
+
+        /**
+         * Sizes still needed that fit the sheet, at most {@link #MAX_SIZES} of them by remaining area, in size
+         * order.
+         */
+        int[] forTable(long sheetLength, long sheetWidth) {
+            List<Integer> fitting = new ArrayList<>();
+            for (int s = 0; s < count; s++) {
+                if (remaining[s] == 0) continue;
+                boolean fits = (longSide[s] <= sheetLength && shortSide[s] <= sheetWidth)
+                        || (longSide[s] <= sheetWidth && shortSide[s] <= sheetLength);
+                if (fits) fitting.add(s);
+            }
+            if (fitting.size() > MAX_SIZES) {
+                fitting.sort((a, b) -> Double.compare(area[b] * remaining[b], area[a] * remaining[a]));
+                fitting = new ArrayList<>(fitting.subList(0, MAX_SIZES));
+                fitting.sort(null);
+            }
+            int[] chosen = new int[fitting.size()];
+            for (int k = 0; k < chosen.length; k++) chosen[k] = fitting.get(k);
+            return chosen;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link PatternTable}s keyed by sheet size, kerf and the part sizes and values, so a stock size that recurs with
+ * the same catalogue of parts is only worked out once. Like {@link ResultCache}, a bounded LRU map in memory
+ * is backed by an optional directory on disk.
+ */
+public class PatternCache {
+    private static final String FILE_SUFFIX = ".pattern";
+
+    private final Map<String, PatternTable> memory;
+    private final Path directory;
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PatternCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * @param directory where tables are persisted, or {@code null} for a memory-only cache
+     */
+    public PatternCache(int maxEntries, Path directory) {
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PatternTable> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.directory = directory;
+    }
+
+    /**
+     * The table for a sheet and part sizes, all in micro-units with the kerf added to the parts, building
+     * and storing it on a miss.
+     */
+    public PatternTable get(long sheetLength, long sheetWidth, long kerf, long[] lengths, long[] widths, double[] values) {
+        String key = key(sheetLength, sheetWidth, kerf, lengths, widths, values);
+        synchronized (memory) {
+            PatternTable table = memory.get(key);
+            if (table != null) {
+                memoryHits.incrementAndGet();
+                return table;
+            }
+        }
+        PatternTable table = readFromDisk(key);
+        if (table != null) {
+            diskHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            table = PatternTable.build(sheetLength, sheetWidth, lengths, widths, values);
+            writeToDisk(key, table);
+        }
+        synchronized (memory) {
+            memory.put(key, table);
+        }
+        return table;
+    }
+
+    public long getMemoryHits() { return memoryHits.get(); }
+    public long getDiskHits() { return diskHits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    /**
+     * SHA-256 of the sheet, the kerf and the parts in the order given. Tables index their parts by that
+     * order, so callers pass parts sorted; see {@link PatternAlgorithm}.
+     */
+    static String key(long sheetLength, long sheetWidth, long kerf, long[] lengths, long[] widths, double[] values) {
+        StringBuilder canonical = new StringBuilder();
+        canonical.append("S|").append(sheetLength).append('x').append(sheetWidth).append('\n');
+        canonical.append("K|").append(kerf).append('\n');
+        List<String> parts = new ArrayList<>(lengths.length);
+        for (int t = 0; t < lengths.length; t++) {
+            parts.add("P|" + lengths[t] + 'x' + widths[t] + '|' + values[t]);
+        }
+        canonical.append(String.join("\n", parts));
+        return ResultCache.sha256(canonical.toString());
+    }
+
+    private PatternTable readFromDisk(String key) {
+        if (directory == null) return null;
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return PatternTable.read(in);
+        } catch (IOException e) {
+            System.err.println("Discarding unreadable cached pattern table " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Left for the next write to replace
+            }
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, PatternTable table) {
+        if (directory == null) return;
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                table.write(out);
+            }
+            Files.move(temp, directory.resolve(key + FILE_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not persist pattern table: " + e.getMessage());
+            try {
+                if (temp != null) Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Nothing more to clean up
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * Best guillotine fill of every sub-rectangle of a sheet, for an unlimited supply of each part type, by
+ * dynamic programming over a grid of cut positions (Gilmore–Gomory). Cuts are only made at the grid's
+ * positions: the sums of part sides that fit the sheet, reduced to the raster points that leave a remainder
+ * another sum can use. If an axis has more than {@link #MAX_POINTS} of them an evenly spread subset is kept,
+ * which still gives valid, if coarser, patterns.
+ * <p>
+ * Sizes are {@link me.afroninja.cutlistoptimizer.Model.Geometry} micro-units with the kerf already added to
+ * the parts; each part has a value, such as its area, and a fill is worth the sum of its parts' values. A table
+ * depends only on the sheet size, the kerf and the parts, so {@link PatternCache} shares it between jobs.
+ */
+public final class PatternTable {
+    static final int MAX_POINTS = 128;
+    private static final int MAGIC = 0x434C5054; // "CLPT"
+    private static final int VERSION = 1;
+    private static final int EMPTY = 0;
+
+    private final long[] xs;
+    private final long[] ys;
+    private final double[] value;
+    // EMPTY, a part (type * 2 + rotated + 1), a cut across x at xs[k] (-(2k + 1)) or across y at ys[k] (-(2k + 2))
+    private final int[] choice;
+
+    private PatternTable(long[] xs, long[] ys, double[] value, int[] choice) {
+        this.xs = xs;
+        this.ys = ys;
+        this.value = value;
+        this.choice = choice;
+    }
+
+    /**
+     * Receives the parts of a pattern, each with the cell it was given: the part sits in the cell's corner
+     * and the rest of the cell is waste.
+     */
+    interface Visitor {
+        void part(long x, long y, long cellWidth, long cellHeight, int type, boolean rotated);
+    }
+
+    public static PatternTable build(long sheetLength, long sheetWidth, long[] lengths, long[] widths, double[] values) {
+        long[] xs = gridPoints(sheetLength, lengths, widths);
+        long[] ys = gridPoints(sheetWidth, lengths, widths);
+        int ny = ys.length;
+        double[] value = new double[xs.length * ny];
+        int[] choice = new int[xs.length * ny];
+
+        // Each orientation of a part is listed at the smallest cell it fits; a cell's best single part is the
+        // best of those listed at it and of the cells one step smaller
+        int[] first = new int[xs.length * ny];
+        Arrays.fill(first, -1);
+        int[] next = new int[2 * lengths.length];
+        for (int code = 1; code <= 2 * lengths.length; code++) {
+            int t = (code - 1) / 2;
+            boolean rotated = (code - 1) % 2 == 1;
+            int i = ceil(xs, rotated ? widths[t] : lengths[t]);
+            int j = ceil(ys, rotated ? lengths[t] : widths[t]);
+            if (i >= xs.length || j >= ny) continue;
+            next[code - 1] = first[i * ny + j];
+            first[i * ny + j] = code;
+        }
+        double[] partValue = new double[xs.length * ny];
+        int[] partChoice = new int[xs.length * ny];
+        // The values again with x varying fastest, so the cuts across x read them in order
+        int nx = xs.length;
+        double[] across = new double[nx * ny];
+
+        for (int i = 0; i < xs.length; i++) {
+            for (int j = 0; j < ny; j++) {
+                long w = xs[i];
+                long h = ys[j];
+                double best = 0.0;
+                int bestChoice = EMPTY;
+                if (i > 0 && partValue[(i - 1) * ny + j] > best) {
+                    best = partValue[(i - 1) * ny + j];
+                    bestChoice = partChoice[(i - 1) * ny + j];
+                }
+                if (j > 0 && partValue[i * ny + j - 1] > best) {
+                    best = partValue[i * ny + j - 1];
+                    bestChoice = partChoice[i * ny + j - 1];
+                }
+                for (int code = first[i * ny + j]; code > 0; code = next[code - 1]) {
+                    if (values[(code - 1) / 2] > best) {
+                        best = values[(code - 1) / 2];
+                        bestChoice = code;
+                    }
+                }
+                partValue[i * ny + j] = best;
+                partChoice[i * ny + j] = bestChoice;
+
+                // Cuts at up to half the side cover every cut, by symmetry; the remainder only shrinks as the
+                // cut moves out, so its grid point is found by stepping down
+                int rest = i;
+                for (int k = 0; k < i && 2 * xs[k] <= w; k++) {
+                    while (rest >= 0 && xs[rest] > w - xs[k]) rest--;
+                    double cut = across[j * nx + k] + (rest < 0 ? 0.0 : across[j * nx + rest]);
+                    if (cut > best) {
+                        best = cut;
+                        bestChoice = -(2 * k + 1);
+                    }
+                }
+                rest = j;
+                for (int k = 0; k < j && 2 * ys[k] <= h; k++) {
+                    while (rest >= 0 && ys[rest] > h - ys[k]) rest--;
+                    double cut = value[i * ny + k] + (rest < 0 ? 0.0 : value[i * ny + rest]);
+                    if (cut > best) {
+                        best = cut;
+                        bestChoice = -(2 * k + 2);
+                    }
+                }
+                value[i * ny + j] = best;
+                across[j * nx + i] = best;
+                choice[i * ny + j] = bestChoice;
+            }
+        }
+        return new PatternTable(xs, ys, value, choice);
+    }
+
+    /**
+     * Value of the best fill of a {@code w} x {@code h} rectangle.
+     */
+    public double value(long w, long h) {
+        int i = floor(xs, w);
+        int j = floor(ys, h);
+        return i < 0 || j < 0 ? 0.0 : value[i * ys.length + j];
+    }
+
+    /**
+     * Walks the best fill of a {@code w} x {@code h} rectangle whose corner is at {@code (x, y)}.
+     */
+    void layout(long x, long y, long w, long h, Visitor visitor) {
+        int i = floor(xs, w);
+        int j = floor(ys, h);
+        if (i < 0 || j < 0) return;
+        int code = choice[i * ys.length + j];
+        if (code > 0) {
+            visitor.part(x, y, w, h, (code - 1) / 2, (code - 1) % 2 == 1);
+        } else if (code < 0 && (-code) % 2 == 1) {
+            long cut = xs[(-code - 1) / 2];
+            layout(x, y, cut, h, visitor);
+            layout(x + cut, y, w - cut, h, visitor);
+        } else if (code < 0) {
+            long cut = ys[(-code - 2) / 2];
+            layout(x, y, w, cut, visitor);
+            layout(x, y + cut, w, h - cut, visitor);
+        }
+    }
+
+    /**
+     * Index of the largest grid point not above {@code size}, or -1.
+     */
+    private static int floor(long[] points, long size) {
+        int index = Arrays.binarySearch(points, size);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Index of the smallest grid point not below {@code size}, or the grid's length.
+     */
+    private static int ceil(long[] points, long size) {
+        int index = Arrays.binarySearch(points, size);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Positive sums of part sides up to {@code limit}, reduced to raster points and thinned to
+     * {@link #MAX_POINTS}, keeping the single sides unless there are too many of them.
+     */
+    static long[] gridPoints(long limit, long[] lengths, long[] widths) {
+        TreeSet<Long> sides = new TreeSet<>();
+        for (int t = 0; t < lengths.length; t++) {
+            if (lengths[t] > 0 && lengths[t] <= limit) sides.add(lengths[t]);
+            if (widths[t] > 0 && widths[t] <= limit) sides.add(widths[t]);
+        }
+        if (sides.isEmpty()) return new long[0];
+        // Sums are kept on a grid no finer than limit / (8 * MAX_POINTS), rounding up so a point never
+        // promises more room than the parts in it need
+        long step = Math.max(1, limit / (8L * MAX_POINTS));
+        boolean[] reachable = new boolean[(int) (limit / step) + 1];
+        reachable[0] = true;
+        for (int s = 0; s < reachable.length; s++) {
+            if (!reachable[s]) continue;
+            for (long side : sides) {
+                long next = s + (side + step - 1) / step;
+                if (next >= reachable.length) break;
+                reachable[(int) next] = true;
+            }
+        }
+        TreeSet<Long> normal = new TreeSet<>();
+        for (int s = 1; s < reachable.length; s++) {
+            if (reachable[s]) normal.add(s * step);
+        }
+        // Raster points: the largest normal point that fits in what each normal point leaves over
+        TreeSet<Long> raster = new TreeSet<>(sides);
+        for (long point : normal) {
+            Long fit = normal.floor(limit - point);
+            if (fit != null) raster.add(fit);
+        }
+        Long whole = normal.floor(limit);
+        if (whole != null) raster.add(whole);
+        if (raster.size() <= MAX_POINTS) return toArray(raster);
+
+        TreeSet<Long> thinned = sides.size() < MAX_POINTS / 2 ? new TreeSet<>(sides) : new TreeSet<>();
+        long[] all = toArray(raster);
+        int room = Math.max(MAX_POINTS - thinned.size(), 1);
+        for (int k = 0; k < room; k++) {
+            thinned.add(all[(int) ((long) k * (all.length - 1) / Math.max(room - 1, 1))]);
+        }
+        return toArray(thinned);
+    }
+
+    private static long[] toArray(TreeSet<Long> points) {
+        long[] array = new long[points.size()];
+        int k = 0;
+        for (long point : points) array[k++] = point;
+        return array;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(xs.length);
+        for (long x : xs) out.writeLong(x);
+        out.writeInt(ys.length);
+        for (long y : ys) out.writeLong(y);
+        for (double v : value) out.writeDouble(v);
+        for (int c : choice) out.writeInt(c);
+        out.flush();
+    }
+
+    public static PatternTable read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a pattern table");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Unsupported pattern table version " + version);
+        long[] xs = readPoints(in);
+        long[] ys = readPoints(in);
+        double[] value = new double[xs.length * ys.length];
+        int[] choice = new int[value.length];
+        for (int k = 0; k < value.length; k++) value[k] = in.readDouble();
+        for (int k = 0; k < choice.length; k++) choice[k] = in.readInt();
+        return new PatternTable(xs, ys, value, choice);
+    }
+
+    private static long[] readPoints(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > 4 * MAX_POINTS) throw new IOException("Bad grid size " + count);
+        long[] points = new long[count];
+        for (int k = 0; k < count; k++) {
+            points[k] = in.readLong();
+            if (k > 0 && points[k] <= points[k - 1]) throw new IOException("Grid not sorted");
+        }
+        return points;
+    }
+}
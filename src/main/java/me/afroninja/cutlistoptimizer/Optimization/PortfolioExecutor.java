@@ -0,0 +1,103 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Runs a portfolio of strategies at the same time, each on its own copy of the input, and picks the winner
+ * once they are all done. Each run is measured on its own thread by a {@link StrategyProbe}. Completions are
+ * consumed on the calling thread, so listeners never see concurrent callbacks. Strategies that are abandoned
+ * stop at their next {@link Checkpoint}.
+ */
+public class PortfolioExecutor {
+    private static final long CANCEL_POLL_MILLIS = 20;
+
+    private final ExecutorService executor;
+
+    public PortfolioExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public Map<String, OptimizationResult> run(Map<String, PackingAlgorithm> strategies, List<Panel> panels,
+                                               List<StockSheet> sheets, double cutThickness, OptimizationListener listener) {
+        return run(strategies, panels, sheets, cutThickness, listener, result -> false);
+    }
+
+    /**
+     * Returns the results of every strategy that finished, in the order the strategies were given. If the
+     * listener cancels, or a finished result satisfies {@code optimal}, the strategies still running are
+     * abandoned and only the finished ones are returned.
+     */
+    public Map<String, OptimizationResult> run(Map<String, PackingAlgorithm> strategies, List<Panel> panels,
+                                               List<StockSheet> sheets, double cutThickness, OptimizationListener listener,
+                                               Predicate<OptimizationResult> optimal) {
+        CompletionService<Map.Entry<String, OptimizationResult>> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Map.Entry<String, OptimizationResult>>> futures = new ArrayList<>();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        for (Map.Entry<String, PackingAlgorithm> strategy : strategies.entrySet()) {
+            List<Panel> panelCopy = new ArrayList<>(panels);
+            List<StockSheet> sheetCopy = new ArrayList<>(sheets);
+            futures.add(completionService.submit(() -> {
+                StrategyProbe probe = StrategyProbe.start(strategy.getKey());
+                OptimizationResult result = Checkpoint.run(abandoned::get,
+                        () -> strategy.getValue().pack(panelCopy, sheetCopy, cutThickness));
+                return Map.entry(strategy.getKey(), probe.finish(result));
+            }));
+        }
+
+        Map<String, OptimizationResult> finished = new LinkedHashMap<>();
+        OptimizationResult best = null;
+        int panelCount = 0;
+        for (Panel panel : panels) {
+            panelCount += Math.max(panel.getQuantity(), 0);
+        }
+        int totalSteps = strategies.size() * panelCount;
+        try {
+            while (finished.size() < futures.size()) {
+                if (listener.isCancelled()) break;
+                Future<Map.Entry<String, OptimizationResult>> done = completionService.poll(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (done == null) continue;
+
+                Map.Entry<String, OptimizationResult> entry = done.get();
+                finished.put(entry.getKey(), entry.getValue());
+                if (PackingEngine.isBetter(entry.getValue(), best)) {
+                    best = entry.getValue();
+                }
+                listener.algorithmCompleted(entry.getKey(), entry.getValue(), best, finished.size() * panelCount, totalSteps);
+                if (optimal.test(entry.getValue())) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Packing strategy failed", e.getCause());
+        } finally {
+            abandoned.set(true);
+            // Not interrupted: the pool's threads are shared, and running strategies stop at their checkpoints
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+
+        Map<String, OptimizationResult> ordered = new LinkedHashMap<>();
+        for (String name : strategies.keySet()) {
+            if (finished.containsKey(name)) {
+                ordered.put(name, finished.get(name));
+            }
+        }
+        return ordered;
+    }
+}
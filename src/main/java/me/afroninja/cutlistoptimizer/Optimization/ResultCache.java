@@ -0,0 +1,180 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.IO.ResultCodec;
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.SearchBudget;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Results keyed by a fingerprint of the job: the panel types merged and sorted, the stock rows, the kerf,
+ * the set of algorithms and the search budget. A bounded LRU map in memory is backed by an optional
+ * directory on disk, so repeat jobs are answered without packing, even after a restart.
+ */
+public class ResultCache {
+    private static final String FILE_SUFFIX = ".result";
+
+    private final Map<String, OptimizationResult> memory;
+    private final Path directory;
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResultCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * @param directory where results are persisted, or {@code null} for a memory-only cache
+     */
+    public ResultCache(int maxEntries, Path directory) {
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OptimizationResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.directory = directory;
+    }
+
+    public OptimizationResult get(String fingerprint) {
+        synchronized (memory) {
+            OptimizationResult result = memory.get(fingerprint);
+            if (result != null) {
+                memoryHits.incrementAndGet();
+                return result;
+            }
+        }
+        OptimizationResult result = readFromDisk(fingerprint);
+        if (result == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        diskHits.incrementAndGet();
+        synchronized (memory) {
+            memory.put(fingerprint, result);
+        }
+        return result;
+    }
+
+    public void put(String fingerprint, OptimizationResult result) {
+        synchronized (memory) {
+            memory.put(fingerprint, result);
+        }
+        writeToDisk(fingerprint, result);
+    }
+
+    public long getMemoryHits() { return memoryHits.get(); }
+    public long getDiskHits() { return diskHits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public int size() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    /**
+     * Canonical SHA-256 fingerprint of a job. Panel rows of the same size and label are merged and sorted, so
+     * reordering or splitting rows hits the same entry; stock rows keep their order because it decides which
+     * sheets are used first.
+     */
+    public static String fingerprint(OptimizationJob job, Collection<String> algorithms) {
+        Map<String, Integer> panelTypes = new LinkedHashMap<>();
+        List<Panel> sorted = new ArrayList<>(job.getPanels());
+        sorted.sort(Comparator.comparingDouble(Panel::getLength).thenComparingDouble(Panel::getWidth)
+                .thenComparing(panel -> panel.getLabel() == null ? "" : panel.getLabel()));
+        for (Panel panel : sorted) {
+            if (panel.getQuantity() <= 0) continue;
+            panelTypes.merge(panel.getLength() + "x" + panel.getWidth() + ":" + panel.getLabel(), panel.getQuantity(), Integer::sum);
+        }
+
+        StringBuilder canonical = new StringBuilder();
+        panelTypes.forEach((type, quantity) -> canonical.append("P|").append(type).append('|').append(quantity).append('\n'));
+        for (StockSheet sheet : job.getStockSheets()) {
+            canonical.append("S|").append(sheet.getLength()).append('x').append(sheet.getWidth()).append(':')
+                    .append(sheet.getLabel()).append('|').append(sheet.getQuantity());
+            // Unpriced stock keeps the key it had before sheets had a cost
+            if (sheet.getCost() > 0) canonical.append('$').append(sheet.getCost());
+            canonical.append('\n');
+        }
+        canonical.append("K|").append(job.getCutThickness()).append('\n');
+        canonical.append("A|").append(String.join(",", new TreeSet<>(algorithms))).append('\n');
+        SearchBudget budget = job.getSearchBudget();
+        if (budget.isEnabled()) {
+            canonical.append("B|").append(budget.getTimeMillis()).append('|').append(budget.getIterations())
+                    .append('|').append(budget.getStarts()).append('\n');
+        }
+
+        return sha256(canonical.toString());
+    }
+
+    static String sha256(String canonical) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private OptimizationResult readFromDisk(String fingerprint) {
+        if (directory == null) return null;
+        Path file = directory.resolve(fingerprint + FILE_SUFFIX);
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            return ResultCodec.map(file);
+        } catch (IOException e) {
+            System.err.println("Discarding unreadable cached result " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Left for the next write to replace
+            }
+            return null;
+        }
+    }
+
+    private void writeToDisk(String fingerprint, OptimizationResult result) {
+        if (directory == null) return;
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, fingerprint, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                ResultCodec.write(result, out);
+            }
+            Files.move(temp, directory.resolve(fingerprint + FILE_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not persist cached result: " + e.getMessage());
+            try {
+                if (temp != null) Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Nothing more to clean up
+            }
+        }
+    }
+}
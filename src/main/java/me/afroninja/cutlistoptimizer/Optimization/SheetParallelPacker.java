@@ -0,0 +1,272 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Geometry;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.Rectangle;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import me.afroninja.cutlistoptimizer.Model.StrategyMetrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Assign-then-fill packing for jobs that need many sheets. Each round first deals the remaining copies out
+ * to sheets by area, then fills every sheet with its share on its own, all at once on a work-stealing pool.
+ * Since placements are sheet-local, the sheets do not depend on each other. Sheets are handed more than they
+ * can hold, and what a sheet leaves over goes into the next round; once only a few sheets' worth is left, the
+ * rest is packed in one sequential run.
+ * <p>
+ * The fill of one sheet cannot reach for small panels dealt to other sheets, so layouts waste more than the
+ * sequential strategies'. It is registered for jobs that name it, not in the default portfolio.
+ */
+public class SheetParallelPacker implements PackingAlgorithm {
+    // Panel area a sheet is handed per unit of its own area, so its fill has spare panels to choose from
+    private static final double OVERFILL = 3.0;
+    // Below this many sheets' worth of panels a round no longer pays off
+    private static final int TAIL_SHEETS = 64;
+
+    private final FreeRectanglePacker sheetPacker;
+    private final ForkJoinPool pool;
+
+    public SheetParallelPacker(ForkJoinPool pool) {
+        this(new GuillotineAlgorithm(), pool);
+    }
+
+    SheetParallelPacker(FreeRectanglePacker sheetPacker, ForkJoinPool pool) {
+        this.sheetPacker = sheetPacker;
+        this.pool = pool;
+    }
+
+    @Override
+    public OptimizationResult pack(List<Panel> panels, List<StockSheet> sheets, double cutThickness) {
+        List<Panel> panelTypes = new ArrayList<>(panels);
+        panelTypes.sort(sheetPacker.panelOrder());
+        int typeCount = panelTypes.size();
+        long kerf = Geometry.toMicros(cutThickness);
+        long[] lengths = new long[typeCount];
+        long[] widths = new long[typeCount];
+        int[] remaining = new int[typeCount];
+        int totalQuantity = 0;
+        for (int type = 0; type < typeCount; type++) {
+            Panel panel = panelTypes.get(type);
+            lengths[type] = Geometry.toMicros(panel.getLength()) + kerf;
+            widths[type] = Geometry.toMicros(panel.getWidth()) + kerf;
+            remaining[type] = Math.max(panel.getQuantity(), 0);
+            totalQuantity += remaining[type];
+        }
+
+        OptimizationResult result = new OptimizationResult();
+        PlacementStore placements = new PlacementStore(panelTypes, totalQuantity);
+        StockPool stock = new StockPool(sheets);
+        double[] usedArea = new double[1];
+        StrategyMetrics metrics = new StrategyMetrics();
+
+        while (stock.hasNext()) {
+            Checkpoint.check();
+            double needed = remainingArea(lengths, widths, remaining);
+            StockSheet next = stock.peek(0, 0, needed);
+            if (next == null) break;
+            if (needed <= TAIL_SHEETS * next.getLength() * next.getWidth()) {
+                // Too few sheets left to be worth a round; finish them in one sequential run
+                List<Integer> types = new ArrayList<>();
+                List<Panel> rows = new ArrayList<>();
+                for (int type = 0; type < typeCount; type++) {
+                    if (remaining[type] == 0) continue;
+                    Panel panel = panelTypes.get(type);
+                    types.add(type);
+                    rows.add(new Panel(panel.getLength(), panel.getWidth(), remaining[type], panel.getLabel()));
+                }
+                merge(sheetPacker.decode(rows, null, stock.remainingRows(), cutThickness), types,
+                        panelTypes, remaining, result, placements, usedArea, metrics);
+                break;
+            }
+
+            List<SheetFill> round = assign(panelTypes, lengths, widths, remaining, stock);
+            pool.invoke(new FillAll(round, cutThickness, Checkpoint.current()));
+            int placedThisRound = 0;
+            for (SheetFill fill : round) {
+                placedThisRound += merge(fill.result, fill.types, panelTypes, remaining, result, placements, usedArea, metrics);
+                // A sheet only counts once its fill placed something; the others go back for later rounds
+                if (fill.result.getUsedSheets().isEmpty()) stock.giveBack(fill.sheet);
+            }
+            if (placedThisRound == 0) break;
+        }
+
+        for (int type = 0; type < typeCount; type++) {
+            if (remaining[type] > 0) {
+                Panel panel = panelTypes.get(type);
+                result.getUnplacedPanels().add(new Panel(panel.getLength(), panel.getWidth(), remaining[type], panel.getLabel()));
+            }
+        }
+        for (StockSheet sheet : result.getUsedSheets()) {
+            result.setTotalArea(result.getTotalArea() + (sheet.getLength() * sheet.getWidth()));
+        }
+        result.setPlacements(placements);
+        result.setUsedArea(usedArea[0]);
+        result.setMetrics(metrics);
+        result.setTotalCuts(placements.size() * 2);
+        result.setWastePercentage((result.getTotalArea() - result.getUsedArea()) / result.getTotalArea() * 100);
+        return result;
+    }
+
+    /**
+     * Appends a layout of some of the job's panels, whose types are indices into {@code types}, as the next
+     * sheets of the result, and adds its counters to {@code metrics}. Returns the number of panels it placed.
+     */
+    private static int merge(OptimizationResult filled, List<Integer> types, List<Panel> panelTypes, int[] remaining,
+                             OptimizationResult result, PlacementStore placements, double[] usedArea,
+                             StrategyMetrics metrics) {
+        if (filled.getMetrics() != null) {
+            metrics.setFitTests(metrics.getFitTests() + filled.getMetrics().getFitTests());
+            metrics.setPeakFreeRectangles(Math.max(metrics.getPeakFreeRectangles(), filled.getMetrics().getPeakFreeRectangles()));
+        }
+        PlacementStore placed = filled.getPlacements();
+        int firstSheet = result.getUsedSheets().size();
+        result.getUsedSheets().addAll(filled.getUsedSheets());
+        for (int i = 0; i < placed.size(); i++) {
+            int type = types.get(placed.getPanelType(i));
+            placements.add(placed.getXMicros(i), placed.getYMicros(i), placed.getWidthMicros(i), placed.getHeightMicros(i),
+                    firstSheet + placed.getSheet(i), type, placed.isRotated(i));
+            remaining[type]--;
+            usedArea[0] += panelTypes.get(type).getLength() * panelTypes.get(type).getWidth();
+        }
+        for (Rectangle free : filled.getRectangles()) {
+            result.getRectangles().add(new Rectangle(free.getX(), free.getY(), free.getWidth(), free.getHeight(),
+                    firstSheet + free.getSheet()));
+        }
+        return placed.size();
+    }
+
+    private static double remainingArea(long[] lengths, long[] widths, int[] remaining) {
+        double area = 0.0;
+        for (int type = 0; type < remaining.length; type++) {
+            if (lengths[type] <= 0 || widths[type] <= 0) continue;
+            area += remaining[type] * Geometry.toUnits(lengths[type]) * Geometry.toUnits(widths[type]);
+        }
+        return area;
+    }
+
+    /**
+     * Takes enough sheets to hold the remaining area and deals the copies out, largest types first, each
+     * share going to the sheet with the most area still unassigned. Every sheet so gets a mix of large panels
+     * and small ones to fill around them, while copies of one type stay together in blocks of up to
+     * {@code remaining / sheets}. Copies that find no room wait for the next round, and so do sheets that
+     * get no copies.
+     */
+    private static List<SheetFill> assign(List<Panel> panelTypes, long[] lengths, long[] widths, int[] remaining,
+                                          StockPool stock) {
+        double needed = remainingArea(lengths, widths, remaining);
+        double[] areas = new double[panelTypes.size()];
+        for (int type = 0; type < areas.length; type++) {
+            if (lengths[type] <= 0 || widths[type] <= 0) continue;
+            areas[type] = Geometry.toUnits(lengths[type]) * Geometry.toUnits(widths[type]);
+        }
+        List<SheetFill> round = new ArrayList<>();
+        double capacity = 0.0;
+        while (capacity < needed && stock.hasNext()) {
+            StockSheet sheet = stock.next(0, 0, needed - capacity);
+            if (sheet == null) break;
+            SheetFill fill = new SheetFill(sheet);
+            round.add(fill);
+            capacity += fill.free;
+        }
+        if (round.isEmpty()) return round;
+
+        PriorityQueue<SheetFill> byFree = new PriorityQueue<>(Comparator.comparingDouble((SheetFill fill) -> fill.free).reversed());
+        byFree.addAll(round);
+        List<SheetFill> skipped = new ArrayList<>();
+        for (int type = 0; type < panelTypes.size(); type++) {
+            if (areas[type] == 0) continue;
+            int left = remaining[type];
+            int share = (left + round.size() - 1) / round.size();
+            while (left > 0 && !byFree.isEmpty()) {
+                SheetFill fill = byFree.poll();
+                if (fill.free < areas[type]) {
+                    byFree.add(fill);
+                    break;
+                }
+                if (!fitsSheet(fill.sheet, lengths[type], widths[type])) {
+                    skipped.add(fill);
+                    continue;
+                }
+                int count = (int) Math.min(Math.min(left, share), Math.floor(fill.free / areas[type]));
+                fill.add(type, panelTypes.get(type), count);
+                fill.free -= count * areas[type];
+                left -= count;
+                byFree.add(fill);
+            }
+            byFree.addAll(skipped);
+            skipped.clear();
+        }
+        return round;
+    }
+
+    private static boolean fitsSheet(StockSheet sheet, long panelLength, long panelWidth) {
+        long sheetLength = Geometry.toMicros(sheet.getLength());
+        long sheetWidth = Geometry.toMicros(sheet.getWidth());
+        return Geometry.fits(sheetLength, sheetWidth, panelLength, panelWidth)
+                || Geometry.fits(sheetLength, sheetWidth, panelWidth, panelLength);
+    }
+
+    /**
+     * One sheet of a round: the copies assigned to it, as rows of the job's panel types, and once filled, the
+     * single-sheet result.
+     */
+    private static final class SheetFill {
+        final StockSheet sheet;
+        final List<Integer> types = new ArrayList<>();
+        final List<Panel> rows = new ArrayList<>();
+        double free;
+        OptimizationResult result;
+
+        SheetFill(StockSheet sheet) {
+            this.sheet = sheet;
+            this.free = sheet.getLength() * sheet.getWidth() * OVERFILL;
+        }
+
+        void add(int type, Panel panel, int count) {
+            int last = types.size() - 1;
+            if (last >= 0 && types.get(last) == type) {
+                count += rows.get(last).getQuantity();
+                rows.set(last, new Panel(panel.getLength(), panel.getWidth(), count, panel.getLabel()));
+                return;
+            }
+            types.add(type);
+            rows.add(new Panel(panel.getLength(), panel.getWidth(), count, panel.getLabel()));
+        }
+
+    }
+
+    private final class FillAll extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<SheetFill> round;
+        private final double cutThickness;
+        // The caller's stop condition, which the pool threads do not otherwise see
+        private final BooleanSupplier stop;
+
+        FillAll(List<SheetFill> round, double cutThickness, BooleanSupplier stop) {
+            this.round = round;
+            this.cutThickness = cutThickness;
+            this.stop = stop;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForkJoinTask<?>> fills = new ArrayList<>(round.size());
+            for (SheetFill fill : round) {
+                fills.add(ForkJoinTask.adapt(() -> Checkpoint.run(stop, () ->
+                        fill.result = sheetPacker.decode(fill.rows, null, List.of(fill.sheet), cutThickness))));
+            }
+            invokeAll(fills);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Geometry;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.Rectangle;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import me.afroninja.cutlistoptimizer.Model.StrategyMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Skyline packing for large jobs. Each sheet keeps only its skyline: the top edge of the filled area as a
+ * left-to-right array of segments. A panel is placed on the skyline at the segment the {@link Heuristic}
+ * scores best, so a placement costs time in the number of segments, not in the number of panels placed.
+ * <p>
+ * The gaps a panel bridges between itself and lower segments go into a waste map, a
+ * {@link FreeRectangleIndex} over all sheets, and each panel tries the waste map before the skylines.
+ * Gaps narrower than the smallest panel of the job are dropped. Panels go on the first open sheet whose
+ * skyline can take them, with the same cursors as {@link MaxRectsAlgorithm} to pass over full sheets.
+ */
+public class SkylineAlgorithm implements PackingAlgorithm {
+    public enum Heuristic {
+        /** Lowest top edge, then the narrowest segment. */
+        BOTTOM_LEFT,
+        /** Least area left as waste under the panel, then the lowest top edge. */
+        MIN_WASTE
+    }
+
+    private final Heuristic heuristic;
+
+    public SkylineAlgorithm(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public OptimizationResult pack(List<Panel> panels, List<StockSheet> sheets, double cutThickness) {
+        List<Panel> panelTypes = new ArrayList<>(panels);
+        panelTypes.sort((p1, p2) -> {
+            int byWidth = Double.compare(p2.getWidth(), p1.getWidth());
+            return byWidth != 0 ? byWidth : Double.compare(p2.getLength(), p1.getLength());
+        });
+
+        OptimizationResult result = new OptimizationResult();
+        StockPool stock = new StockPool(sheets);
+        long kerf = Geometry.toMicros(cutThickness);
+        int totalQuantity = 0;
+        long smallestSide = Long.MAX_VALUE;
+        double demandArea = 0.0;
+        for (Panel panel : panelTypes) {
+            totalQuantity += Math.max(panel.getQuantity(), 0);
+            demandArea += Math.max(panel.getQuantity(), 0) * panel.getLength() * panel.getWidth();
+            smallestSide = Math.min(smallestSide, Geometry.toMicros(Math.min(panel.getLength(), panel.getWidth())) + kerf);
+        }
+        PlacementStore placements = new PlacementStore(panelTypes, totalQuantity);
+        FreeRectangleIndex waste = new FreeRectangleIndex();
+        List<Skyline> open = new ArrayList<>();
+        boolean[] rotated = new boolean[1];
+        long[] best = new long[4];
+        double usedArea = 0.0;
+        int segments = 0;
+        int peakSegments = 0;
+        long fitTests = 0;
+        int firstLive = 0;
+
+        for (int type = 0; type < panelTypes.size(); type++) {
+            Panel panel = panelTypes.get(type);
+            long panelLength = Geometry.toMicros(panel.getLength()) + kerf;
+            long panelWidth = Geometry.toMicros(panel.getWidth()) + kerf;
+            int remaining = Math.max(panel.getQuantity(), 0);
+            if (remaining > 0 && (panelLength <= 0 || panelWidth <= 0)) {
+                result.getUnplacedPanels().add(new Panel(panel.getLength(), panel.getWidth(), remaining, panel.getLabel()));
+                continue;
+            }
+
+            while (firstLive < open.size() && !open.get(firstLive).mayHold(smallestSide, smallestSide)) {
+                firstLive++;
+            }
+            int fromSheet = firstLive;
+            while (remaining > 0) {
+                Checkpoint.check();
+                int rect = waste.isEmpty() ? FreeRectangleIndex.NONE
+                        : FreeRectanglePacker.firstOrientation(waste, panelLength, panelWidth, rotated);
+                if (rect != FreeRectangleIndex.NONE) {
+                    long placedLength = rotated[0] ? panelWidth : panelLength;
+                    long placedWidth = rotated[0] ? panelLength : panelWidth;
+                    long rectX = waste.getX(rect);
+                    long rectY = waste.getY(rect);
+                    long rectWidth = waste.getWidth(rect);
+                    long rectHeight = waste.getHeight(rect);
+                    int sheet = waste.getSheet(rect);
+                    waste.remove(rect);
+                    placements.add(rectX, rectY, placedLength, placedWidth, sheet, type, rotated[0]);
+                    addWaste(waste, rectX + placedLength, rectY, rectWidth - placedLength, rectHeight, sheet, smallestSide);
+                    addWaste(waste, rectX, rectY + placedWidth, placedLength, rectHeight - placedWidth, sheet, smallestSide);
+                    remaining--;
+                    usedArea += panel.getLength() * panel.getWidth();
+                    continue;
+                }
+
+                int segment = -1;
+                while (fromSheet < open.size()) {
+                    Skyline skyline = open.get(fromSheet);
+                    if (skyline.mayHold(panelLength, panelWidth)) {
+                        fitTests += skyline.count;
+                        segment = skyline.findPosition(panelLength, panelWidth, heuristic, best);
+                        if (segment >= 0) break;
+                    }
+                    fromSheet++;
+                }
+                StockSheet sheet = segment < 0 ? stock.next(panelLength, panelWidth, demandArea - usedArea) : null;
+                if (sheet != null) {
+                    result.getUsedSheets().add(sheet);
+                    open.add(new Skyline(Geometry.toMicros(sheet.getLength()), Geometry.toMicros(sheet.getWidth())));
+                    segments++;
+                    fromSheet = open.size() - 1;
+                    segment = open.get(fromSheet).findPosition(panelLength, panelWidth, heuristic, best);
+                }
+                if (segment < 0) {
+                    result.getUnplacedPanels().add(new Panel(panel.getLength(), panel.getWidth(), remaining, panel.getLabel()));
+                    break;
+                }
+
+                Skyline skyline = open.get(fromSheet);
+                boolean turned = best[2] != 0;
+                long placedLength = turned ? panelWidth : panelLength;
+                long placedWidth = turned ? panelLength : panelWidth;
+                placements.add(skyline.x[segment], best[3], placedLength, placedWidth, fromSheet, type, turned);
+                segments -= skyline.count;
+                skyline.place(segment, best[3], placedLength, placedWidth, waste, fromSheet, smallestSide);
+                segments += skyline.count;
+                if (segments > peakSegments) peakSegments = segments;
+                remaining--;
+                usedArea += panel.getLength() * panel.getWidth();
+            }
+        }
+
+        for (StockSheet sheet : result.getUsedSheets()) {
+            result.setTotalArea(result.getTotalArea() + (sheet.getLength() * sheet.getWidth()));
+        }
+        result.getRectangles().addAll(waste.toRectangles());
+        for (int s = 0; s < open.size(); s++) {
+            Skyline skyline = open.get(s);
+            for (int i = 0; i < skyline.count; i++) {
+                if (skyline.y[i] >= skyline.sheetHeight) continue;
+                result.getRectangles().add(new Rectangle(Geometry.toUnits(skyline.x[i]), Geometry.toUnits(skyline.y[i]),
+                        Geometry.toUnits(skyline.width[i]), Geometry.toUnits(skyline.sheetHeight - skyline.y[i]), s));
+            }
+        }
+        result.setPlacements(placements);
+        result.setUsedArea(usedArea);
+        result.setTotalCuts(placements.size() * 2);
+        result.setWastePercentage((result.getTotalArea() - result.getUsedArea()) / result.getTotalArea() * 100);
+        StrategyMetrics metrics = new StrategyMetrics();
+        metrics.setPeakFreeRectangles(waste.getPeakSize() + peakSegments);
+        metrics.setFitTests(waste.getFitTests() + fitTests);
+        result.setMetrics(metrics);
+        return result;
+    }
+
+    private static void addWaste(FreeRectangleIndex waste, long x, long y, long width, long height, int sheet,
+                                 long smallestSide) {
+        if (width >= smallestSide && height >= smallestSide) {
+            waste.insert(x, y, width, height, sheet);
+        }
+    }
+
+    /**
+     * Skyline of one sheet: segments {@code [x, x + width)} at height {@code y}, in micro-units, sorted by x
+     * and covering the sheet's width. Neighbours never share a height.
+     */
+    private static final class Skyline {
+        private final long sheetWidth;
+        private final long sheetHeight;
+        private long[] x = new long[16];
+        private long[] y = new long[16];
+        private long[] width = new long[16];
+        private int count;
+        private long lowest;
+        private long failShort = Long.MAX_VALUE;
+        private long failLong = Long.MAX_VALUE;
+
+        Skyline(long sheetWidth, long sheetHeight) {
+            this.sheetWidth = sheetWidth;
+            this.sheetHeight = sheetHeight;
+            width[0] = sheetWidth;
+            count = 1;
+        }
+
+        /**
+         * False when the skyline cannot take the panel in either orientation; true does not promise it can.
+         * Like free space, what a skyline can take only shrinks, so the last failure rules out every panel
+         * at least as large.
+         */
+        boolean mayHold(long panelLength, long panelWidth) {
+            long shortSide = Math.min(panelLength, panelWidth);
+            long longSide = Math.max(panelLength, panelWidth);
+            if (shortSide >= failShort && longSide >= failLong) return false;
+            return lowest + shortSide <= sheetHeight && longSide <= Math.max(sheetWidth, sheetHeight);
+        }
+
+        /**
+         * Segment the panel's left edge goes on, or -1. Puts the two scores in {@code best[0..1]}, 1 in
+         * {@code best[2]} if the panel is turned and the panel's y in {@code best[3]}.
+         */
+        int findPosition(long panelLength, long panelWidth, Heuristic heuristic, long[] best) {
+            int found = -1;
+            best[0] = Long.MAX_VALUE;
+            best[1] = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                if (fit(i, panelLength, panelWidth, heuristic, best)) {
+                    found = i;
+                    best[2] = 0;
+                }
+                if (panelLength != panelWidth && fit(i, panelWidth, panelLength, heuristic, best)) {
+                    found = i;
+                    best[2] = 1;
+                }
+            }
+            if (found < 0) {
+                failShort = Math.min(panelLength, panelWidth);
+                failLong = Math.max(panelLength, panelWidth);
+            }
+            return found;
+        }
+
+        /**
+         * Whether a {@code w} x {@code h} box with its left edge on segment {@code i} fits and beats the
+         * scores in {@code best}, which it then replaces.
+         */
+        private boolean fit(int i, long w, long h, Heuristic heuristic, long[] best) {
+            long right = x[i] + w;
+            if (right > sheetWidth) return false;
+            long top = 0;
+            for (int j = i; j < count && x[j] < right; j++) {
+                if (y[j] > top) top = y[j];
+            }
+            if (top + h > sheetHeight) return false;
+
+            long primary;
+            long secondary;
+            if (heuristic == Heuristic.MIN_WASTE) {
+                long wasted = 0;
+                for (int j = i; j < count && x[j] < right; j++) {
+                    long covered = Math.min(x[j] + width[j], right) - x[j];
+                    wasted += (top - y[j]) / 1000 * (covered / 1000);
+                }
+                primary = wasted;
+                secondary = top + h;
+            } else {
+                primary = top + h;
+                secondary = width[i];
+            }
+            if (primary > best[0] || (primary == best[0] && secondary >= best[1])) return false;
+            best[0] = primary;
+            best[1] = secondary;
+            best[3] = top;
+            return true;
+        }
+
+        /**
+         * Raises the skyline over {@code [x[i], x[i] + w)} to {@code top + h}, handing the gaps left under
+         * the panel to the waste map.
+         */
+        void place(int i, long top, long w, long h, FreeRectangleIndex waste, int sheet, long smallestSide) {
+            long left = x[i];
+            long right = left + w;
+            int end = i;
+            while (end < count && x[end] < right) {
+                long segmentRight = Math.min(x[end] + width[end], right);
+                addWaste(waste, x[end], y[end], segmentRight - x[end], top - y[end], sheet, smallestSide);
+                end++;
+            }
+            // Segments [i, end) are covered; the last one may stick out to the right and keeps that part
+            int last = end - 1;
+            long lastRight = x[last] + width[last];
+            long lastY = y[last];
+            int replaced = end - i;
+            int added = lastRight > right ? 2 : 1;
+            ensureCapacity(count - replaced + added);
+            System.arraycopy(x, end, x, i + added, count - end);
+            System.arraycopy(y, end, y, i + added, count - end);
+            System.arraycopy(width, end, width, i + added, count - end);
+            count += added - replaced;
+            x[i] = left;
+            y[i] = top + h;
+            width[i] = w;
+            if (added == 2) {
+                x[i + 1] = right;
+                y[i + 1] = lastY;
+                width[i + 1] = lastRight - right;
+            }
+
+            // Merge with neighbours of the same height
+            if (i + 1 < count && y[i + 1] == y[i]) remove(i + 1, i);
+            if (i > 0 && y[i - 1] == y[i]) remove(i, i - 1);
+
+            lowest = Long.MAX_VALUE;
+            for (int j = 0; j < count; j++) {
+                if (y[j] < lowest) lowest = y[j];
+            }
+        }
+
+        /**
+         * Drops segment {@code j}, widening its left neighbour {@code into} over it.
+         */
+        private void remove(int j, int into) {
+            width[into] += width[j];
+            System.arraycopy(x, j + 1, x, j, count - j - 1);
+            System.arraycopy(y, j + 1, y, j, count - j - 1);
+            System.arraycopy(width, j + 1, width, j, count - j - 1);
+            count--;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed <= x.length) return;
+            int capacity = Math.max(needed, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            width = Arrays.copyOf(width, capacity);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.Geometry;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Remaining stock of a packing run, kept as a count per stock row, so choosing a sheet costs time in the number
+ * of rows, not of sheets. A {@link StockSheet} is only created for a sheet that is actually taken.
+ * <p>
+ * The next sheet is chosen for the panel that needs it and the panel area still to place. Only rows the panel
+ * fits, either way round, are considered. If one of them can take all that is left, at {@link #EXPECTED_FILL},
+ * the cheapest such sheet is taken; otherwise the cheapest per unit of area. A sheet's cost is its
+ * {@linkplain StockSheet#getCost() cost}; a row without one is costed at its area times the median unit cost
+ * of the priced rows, so pricing some rows does not make the others free, and when no row is priced every
+ * sheet costs its area. Ties go to the row entered first, so stock without costs is used in the order entered
+ * until the last sheet, which is then the smallest that will do.
+ */
+class StockPool {
+    static final double EXPECTED_FILL = 0.9;
+
+    private final List<StockSheet> rows;
+    private final int[] remaining;
+    private final long[] lengths;
+    private final long[] widths;
+    private final double[] areas;
+    private final double[] costs;
+    // Row indices by cost per unit of area, then as entered; rows before firstLeft have run out
+    private final Integer[] order;
+    private int firstLeft;
+    private int left;
+
+    StockPool(List<StockSheet> rows) {
+        this.rows = rows;
+        int n = rows.size();
+        remaining = new int[n];
+        lengths = new long[n];
+        widths = new long[n];
+        areas = new double[n];
+        costs = new double[n];
+        double unpricedUnitCost = medianUnitCost(rows);
+        double[] unitCosts = new double[n];
+        for (int i = 0; i < n; i++) {
+            StockSheet row = rows.get(i);
+            remaining[i] = Math.max(row.getQuantity(), 0);
+            lengths[i] = Geometry.toMicros(row.getLength());
+            widths[i] = Geometry.toMicros(row.getWidth());
+            areas[i] = row.getLength() * row.getWidth();
+            costs[i] = row.getCost() > 0 ? row.getCost() : areas[i] * unpricedUnitCost;
+            unitCosts[i] = areas[i] > 0 ? costs[i] / areas[i] : Double.POSITIVE_INFINITY;
+            left += remaining[i];
+        }
+        order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        // Stable, so equal unit costs keep the order entered
+        Arrays.sort(order, Comparator.comparingDouble(i -> unitCosts[i]));
+        skipEmptyRows();
+    }
+
+    boolean hasNext() {
+        return left > 0;
+    }
+
+    /**
+     * Takes the sheet to open for a panel of the given size, in micro-units with the kerf added, when
+     * {@code demandArea} of panel area is still to be placed; {@code null} if no sheet left can hold the panel.
+     */
+    StockSheet next(long panelLength, long panelWidth, double demandArea) {
+        int row = choose(panelLength, panelWidth, demandArea);
+        if (row < 0) return null;
+        remaining[row]--;
+        left--;
+        skipEmptyRows();
+        StockSheet taken = rows.get(row);
+        return new StockSheet(taken.getLength(), taken.getWidth(), 1, taken.getLabel(), taken.getCost());
+    }
+
+    /**
+     * The row {@link #next} would take a sheet from, without taking it, or {@code null}.
+     */
+    StockSheet peek(long panelLength, long panelWidth, double demandArea) {
+        int row = choose(panelLength, panelWidth, demandArea);
+        return row < 0 ? null : rows.get(row);
+    }
+
+    /**
+     * Returns a sheet taken by {@link #next} that ended up unused, so it can be taken again.
+     */
+    void giveBack(StockSheet sheet) {
+        for (int i = 0; i < rows.size(); i++) {
+            StockSheet row = rows.get(i);
+            if (row.getLength() == sheet.getLength() && row.getWidth() == sheet.getWidth()
+                    && Objects.equals(row.getLabel(), sheet.getLabel()) && row.getCost() == sheet.getCost()
+                    && remaining[i] < Math.max(row.getQuantity(), 0)) {
+                remaining[i]++;
+                left++;
+                firstLeft = 0;
+                skipEmptyRows();
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Sheet was not taken from this pool");
+    }
+
+    /**
+     * The sheets not yet taken, as stock rows in the order entered.
+     */
+    List<StockSheet> remainingRows() {
+        List<StockSheet> rest = new ArrayList<>();
+        for (int i = 0; i < remaining.length; i++) {
+            if (remaining[i] == 0) continue;
+            StockSheet row = rows.get(i);
+            rest.add(new StockSheet(row.getLength(), row.getWidth(), remaining[i], row.getLabel(), row.getCost()));
+        }
+        return rest;
+    }
+
+    private int choose(long panelLength, long panelWidth, double demandArea) {
+        int cheapest = -1;
+        int finishing = -1;
+        for (int k = firstLeft; k < order.length; k++) {
+            int row = order[k];
+            if (remaining[row] == 0 || areas[row] <= 0) continue;
+            boolean fits = (panelLength <= lengths[row] && panelWidth <= widths[row])
+                    || (panelWidth <= lengths[row] && panelLength <= widths[row]);
+            if (!fits) continue;
+            if (cheapest < 0) cheapest = row;
+            if (areas[row] * EXPECTED_FILL >= demandArea && (finishing < 0 || costs[row] < costs[finishing])) {
+                finishing = row;
+            }
+        }
+        return finishing >= 0 ? finishing : cheapest;
+    }
+
+    /**
+     * Median cost per unit of area of the rows with a cost, or 1 if none has one.
+     */
+    private static double medianUnitCost(List<StockSheet> rows) {
+        List<Double> unitCosts = new ArrayList<>();
+        for (StockSheet row : rows) {
+            double area = row.getLength() * row.getWidth();
+            if (row.getCost() > 0 && area > 0) unitCosts.add(row.getCost() / area);
+        }
+        if (unitCosts.isEmpty()) return 1.0;
+        Collections.sort(unitCosts);
+        int middle = unitCosts.size() / 2;
+        return unitCosts.size() % 2 == 1 ? unitCosts.get(middle) : (unitCosts.get(middle - 1) + unitCosts.get(middle)) / 2;
+    }
+
+    private void skipEmptyRows() {
+        while (firstLeft < order.length && remaining[order[firstLeft]] == 0) {
+            firstLeft++;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one strategy run; its duration is the run's wall time. Recorded whenever a
+ * recording is on, e.g. with {@code -XX:StartFlightRecording}, and otherwise costs next to nothing.
+ */
+@Name("me.afroninja.cutlistoptimizer.Strategy")
+@Label("Packing Strategy")
+@Category({"Cut List Optimizer", "Packing"})
+@Description("One run of a packing strategy or search")
+final class StrategyEvent extends Event {
+    @Label("Strategy")
+    String strategy;
+
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Placements")
+    int placements;
+
+    @Label("Peak Free Rectangles")
+    int peakFreeRectangles;
+
+    @Label("Fit Tests")
+    long fitTests;
+
+    @Label("Waste Percentage")
+    double wastePercentage;
+}
@@ -0,0 +1,78 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.StrategyMetrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures one strategy run on the current thread: started just before the run, finished on the same
+ * thread right after it. Finishing fills in the result's {@link StrategyMetrics}, keeping the counters the
+ * strategy set itself, and commits a {@link StrategyEvent}.
+ */
+final class StrategyProbe {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final String strategy;
+    private final StrategyEvent event = new StrategyEvent();
+    private final long startNanos;
+    private final long startCpu;
+    private final long startAllocated;
+
+    private StrategyProbe(String strategy) {
+        this.strategy = strategy;
+        event.begin();
+        this.startCpu = cpuNanos();
+        this.startAllocated = allocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    static StrategyProbe start(String strategy) {
+        return new StrategyProbe(strategy);
+    }
+
+    /**
+     * Returns {@code result}, measured; a {@code null} result is passed through unmeasured.
+     */
+    OptimizationResult finish(OptimizationResult result) {
+        long wall = System.nanoTime() - startNanos;
+        long cpu = cpuNanos();
+        long allocated = allocatedBytes();
+        if (result == null) return null;
+
+        StrategyMetrics metrics = result.getMetrics() != null ? result.getMetrics() : new StrategyMetrics();
+        metrics.setWallNanos(wall);
+        metrics.setCpuNanos(cpu >= 0 && startCpu >= 0 ? cpu - startCpu : -1);
+        metrics.setAllocatedBytes(allocated >= 0 && startAllocated >= 0 ? allocated - startAllocated : -1);
+        metrics.setPlacements(result.getPlacements().size());
+        result.setMetrics(metrics);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = strategy;
+            event.cpuTime = metrics.getCpuNanos();
+            event.allocated = metrics.getAllocatedBytes();
+            event.placements = metrics.getPlacements();
+            event.peakFreeRectangles = metrics.getPeakFreeRectangles();
+            event.fitTests = metrics.getFitTests();
+            event.wastePercentage = result.getWastePercentage();
+            event.commit();
+        }
+        return result;
+    }
+
+    private static long cpuNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+}
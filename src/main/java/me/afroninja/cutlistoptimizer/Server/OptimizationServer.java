@@ -0,0 +1,394 @@
+package me.afroninja.cutlistoptimizer.Server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import me.afroninja.cutlistoptimizer.IO.JobFormat;
+import me.afroninja.cutlistoptimizer.IO.Json;
+import me.afroninja.cutlistoptimizer.IO.ResultJson;
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Optimization.OptimizationListener;
+import me.afroninja.cutlistoptimizer.Optimization.PackingEngine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded HTTP front end for the {@link PackingEngine}, on the JDK's own HTTP server:
+ * <ul>
+ *   <li>{@code POST /optimize} packs the JSON job in the body (see {@link JobFormat}) and answers with the
+ *   result document (see {@link ResultJson}).</li>
+ *   <li>{@code POST /jobs} queues the job and answers 202 with its id; {@code GET /jobs/{id}} reports its
+ *   status and, once done, its result; {@code DELETE /jobs/{id}} cancels it.</li>
+ *   <li>{@code GET /metrics} reports queue depth, counters, throughput and latency; {@code GET /health} is
+ *   for liveness checks.</li>
+ * </ul>
+ * Jobs run on a fixed pool of workers behind a bounded queue. When both are full a job is refused with 429
+ * and a {@code Retry-After} header, so a burst can never pile up unbounded work, and a request body over the
+ * configured size is refused with 413 before it is read in full. Every job has a deadline,
+ * {@code ?deadlineMillis=} or the server default: a job still queued when it passes is dropped, and a
+ * running one is stopped through its listener and answered with the best layout found so far. Finished
+ * async jobs are kept for a while and then forgotten.
+ */
+public class OptimizationServer {
+    public static final int DEFAULT_MAX_BODY_BYTES = 1 << 20;
+    private static final long RESULT_TTL_MILLIS = 10 * 60 * 1000L;
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    private final HttpServer http;
+    private final ExecutorService handlers;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "optimization-server-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PackingEngine engine;
+    private final long defaultDeadlineMillis;
+    private final int queueCapacity;
+    private final int maxBodyBytes;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final ServiceMetrics metrics = new ServiceMetrics();
+
+    public OptimizationServer(InetSocketAddress address, int workerCount, int queueCapacity, long defaultDeadlineMillis)
+            throws IOException {
+        this(address, workerCount, queueCapacity, defaultDeadlineMillis, DEFAULT_MAX_BODY_BYTES);
+    }
+
+    public OptimizationServer(InetSocketAddress address, int workerCount, int queueCapacity, long defaultDeadlineMillis,
+                              int maxBodyBytes) throws IOException {
+        this.engine = new PackingEngine();
+        this.defaultDeadlineMillis = defaultDeadlineMillis;
+        this.queueCapacity = queueCapacity;
+        this.maxBodyBytes = maxBodyBytes;
+        AtomicInteger workerIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "optimization-worker-" + workerIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.handlers = handlerExecutor();
+        this.http = HttpServer.create(address, 0);
+        http.setExecutor(handlers);
+        http.createContext("/optimize", this::handleOptimize);
+        http.createContext("/jobs", this::handleJobs);
+        http.createContext("/metrics", exchange -> {
+            if (!allow(exchange, "GET")) return;
+            send(exchange, 200, metrics.toJson(running.get(), workers.getQueue().size(), queueCapacity, workerCount));
+        });
+        http.createContext("/health", exchange -> send(exchange, 200, "{\"status\":\"ok\"}"));
+    }
+
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::forgetExpired, 1, 1, TimeUnit.MINUTES);
+        http.start();
+    }
+
+    public void stop() {
+        http.stop(0);
+        workers.shutdownNow();
+        handlers.shutdownNow();
+        sweeper.shutdownNow();
+    }
+
+    public InetSocketAddress getAddress() {
+        return http.getAddress();
+    }
+
+    /**
+     * {@code OptimizationServer [--port 8080] [--bind 127.0.0.1] [--workers cores] [--queue 64] [--deadline-ms 30000]
+     * [--max-body-bytes 1048576]}
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        String bind = "127.0.0.1";
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        int queue = 64;
+        long deadline = 30_000;
+        int maxBody = DEFAULT_MAX_BODY_BYTES;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                case "--bind": bind = args[i + 1]; break;
+                case "--workers": workerCount = Math.max(1, Integer.parseInt(args[i + 1])); break;
+                case "--queue": queue = Math.max(1, Integer.parseInt(args[i + 1])); break;
+                case "--deadline-ms": deadline = Math.max(1, Long.parseLong(args[i + 1])); break;
+                case "--max-body-bytes": maxBody = Math.max(1, Integer.parseInt(args[i + 1])); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        OptimizationServer server = new OptimizationServer(new InetSocketAddress(bind, port), workerCount, queue, deadline, maxBody);
+        server.start();
+        System.out.println("Optimization service listening on " + server.getAddress());
+    }
+
+    /**
+     * Handler threads only parse, wait and write, so they are cheap virtual threads where the runtime has them
+     * (Java 21 and later) and a cached pool otherwise; the work itself is bounded by the worker pool.
+     */
+    private static ExecutorService handlerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "optimization-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handleOptimize(HttpExchange exchange) throws IOException {
+        if (!allow(exchange, "POST")) return;
+        Ticket ticket = admit(exchange);
+        if (ticket == null) return;
+        try {
+            ticket.done.await();
+        } catch (InterruptedException e) {
+            ticket.cancelled.set(true);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (ticket.status == Status.DONE) {
+            if (ticket.deadlineReached) exchange.getResponseHeaders().set("X-Deadline-Reached", "true");
+            sendResult(exchange, ticket.result);
+        } else {
+            sendStatus(exchange, ticket.status == Status.EXPIRED ? 504 : 500, ticket);
+        }
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.length() > "/jobs/".length() ? path.substring("/jobs/".length()) : null;
+        String method = exchange.getRequestMethod();
+        if (id == null) {
+            if (!allow(exchange, "POST")) return;
+            Ticket ticket = admit(exchange);
+            if (ticket == null) return;
+            tickets.put(ticket.id, ticket);
+            exchange.getResponseHeaders().set("Location", "/jobs/" + ticket.id);
+            sendStatus(exchange, 202, ticket);
+            return;
+        }
+        Ticket ticket = tickets.get(id);
+        if (ticket == null) {
+            send(exchange, 404, "{\"error\":\"Unknown job\"}");
+        } else if (method.equals("DELETE")) {
+            ticket.cancelled.set(true);
+            sendStatus(exchange, 202, ticket);
+        } else if (allow(exchange, "GET")) {
+            sendStatus(exchange, 200, ticket);
+        }
+    }
+
+    /**
+     * Parses the job and queues it, or answers the exchange with the reason it was not queued.
+     */
+    private Ticket admit(HttpExchange exchange) throws IOException {
+        OptimizationJob job;
+        long deadlineMillis;
+        try (InputStream body = exchange.getRequestBody()) {
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            byte[] bytes = tooLarge(length) ? null : body.readNBytes(maxBodyBytes + 1);
+            if (bytes == null || bytes.length > maxBodyBytes) {
+                send(exchange, 413, "{\"error\":\"Request body larger than " + maxBodyBytes + " bytes\"}");
+                return null;
+            }
+            job = JobFormat.DEFAULT.fromJson(new String(bytes, StandardCharsets.UTF_8));
+            deadlineMillis = deadlineMillis(exchange);
+        } catch (IOException | IllegalArgumentException e) {
+            send(exchange, 400, "{\"error\":" + Json.quote(e.getMessage()) + "}");
+            return null;
+        }
+        for (String name : job.getAlgorithms()) {
+            if (!engine.getAlgorithmNames().contains(name)) {
+                send(exchange, 400, "{\"error\":" + Json.quote("Unknown algorithm: " + name) + "}");
+                return null;
+            }
+        }
+
+        Ticket ticket = new Ticket(job, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis));
+        try {
+            workers.execute(() -> runJob(ticket));
+        } catch (RejectedExecutionException e) {
+            metrics.rejected.increment();
+            exchange.getResponseHeaders().set("Retry-After", Integer.toString(RETRY_AFTER_SECONDS));
+            send(exchange, 429, "{\"error\":\"Too many jobs in progress\"}");
+            return null;
+        }
+        metrics.accepted.increment();
+        return ticket;
+    }
+
+    private boolean tooLarge(String contentLength) {
+        try {
+            return contentLength != null && Long.parseLong(contentLength.trim()) > maxBodyBytes;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private long deadlineMillis(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("deadlineMillis=")) {
+                    try {
+                        long millis = Long.parseLong(parameter.substring("deadlineMillis=".length()));
+                        if (millis > 0) return millis;
+                    } catch (NumberFormatException e) {
+                        // Reported below
+                    }
+                    throw new IllegalArgumentException("deadlineMillis must be a positive whole number");
+                }
+            }
+        }
+        return defaultDeadlineMillis;
+    }
+
+    private void runJob(Ticket ticket) {
+        try {
+            if (ticket.cancelled.get() || System.nanoTime() - ticket.deadlineNanos >= 0) {
+                boolean cancelled = ticket.cancelled.get();
+                (cancelled ? metrics.cancelled : metrics.expired).increment();
+                ticket.finish(cancelled ? Status.CANCELLED : Status.EXPIRED, null,
+                        cancelled ? "Cancelled before the job started" : "Deadline passed before the job started");
+                return;
+            }
+            ticket.status = Status.RUNNING;
+            running.incrementAndGet();
+            try {
+                OptimizationResult result = engine.optimize(ticket.job, new OptimizationListener() {
+                    @Override
+                    public boolean isCancelled() {
+                        if (ticket.cancelled.get()) return true;
+                        if (System.nanoTime() - ticket.deadlineNanos >= 0) {
+                            ticket.deadlineReached = true;
+                            return true;
+                        }
+                        return false;
+                    }
+                });
+                if (result == null) {
+                    boolean cancelled = ticket.cancelled.get();
+                    (cancelled ? metrics.cancelled : metrics.expired).increment();
+                    ticket.finish(cancelled ? Status.CANCELLED : Status.EXPIRED, null, "Stopped before any layout was found");
+                } else {
+                    if (ticket.deadlineReached) metrics.deadlineReached.increment();
+                    metrics.completed.increment();
+                    metrics.recordCompletion(ticket.submittedNanos, System.nanoTime());
+                    ticket.finish(Status.DONE, result, null);
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            metrics.failed.increment();
+            ticket.finish(Status.FAILED, null, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+
+    private void forgetExpired() {
+        long now = System.nanoTime();
+        tickets.values().removeIf(ticket -> ticket.status.isFinal()
+                && now - ticket.finishedNanos > TimeUnit.MILLISECONDS.toNanos(RESULT_TTL_MILLIS));
+    }
+
+    private static boolean allow(HttpExchange exchange, String method) throws IOException {
+        if (exchange.getRequestMethod().equals(method)) return true;
+        exchange.getResponseHeaders().set("Allow", method);
+        send(exchange, 405, "{\"error\":\"Method not allowed\"}");
+        return false;
+    }
+
+    private static void sendStatus(HttpExchange exchange, int code, Ticket ticket) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, 0);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            out.write("{\"id\":" + Json.quote(ticket.id) + ",\"status\":" + Json.quote(ticket.status.name().toLowerCase()));
+            if (ticket.error != null) out.write(",\"error\":" + Json.quote(ticket.error));
+            if (ticket.status == Status.DONE) {
+                out.write(",\"deadlineReached\":" + ticket.deadlineReached + ",\"cancelled\":" + ticket.cancelled.get() + ",\"result\":");
+                ResultJson.write(ticket.result, out);
+            }
+            out.write("}");
+        }
+    }
+
+    private static void sendResult(HttpExchange exchange, OptimizationResult result) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            ResultJson.write(result, out);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int code, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private enum Status {
+        QUEUED, RUNNING, DONE, FAILED, EXPIRED, CANCELLED;
+
+        boolean isFinal() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    /**
+     * One admitted job. Fields are written by its worker and read by handler threads; {@link #done} is
+     * released once they are final.
+     */
+    private static final class Ticket {
+        final String id = UUID.randomUUID().toString();
+        final OptimizationJob job;
+        final long submittedNanos = System.nanoTime();
+        final long deadlineNanos;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Status status = Status.QUEUED;
+        volatile boolean deadlineReached;
+        volatile OptimizationResult result;
+        volatile String error;
+        volatile long finishedNanos;
+
+        Ticket(OptimizationJob job, long deadlineNanos) {
+            this.job = job;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void finish(Status finalStatus, OptimizationResult finalResult, String message) {
+            result = finalResult;
+            error = message;
+            finishedNanos = System.nanoTime();
+            status = finalStatus;
+            done.countDown();
+        }
+    }
+}
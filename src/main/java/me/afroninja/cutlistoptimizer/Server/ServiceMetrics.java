@@ -0,0 +1,81 @@
+package me.afroninja.cutlistoptimizer.Server;
+
+import me.afroninja.cutlistoptimizer.IO.Json;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the optimization service and a window of the most recent completions, from which the
+ * {@code /metrics} endpoint reports throughput and latency percentiles. Recording is cheap and thread-safe;
+ * the window is only sorted when metrics are read.
+ */
+final class ServiceMetrics {
+    private static final int WINDOW = 2048;
+    private static final long RATE_WINDOW_NANOS = 60_000_000_000L;
+
+    final LongAdder accepted = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder completed = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder deadlineReached = new LongAdder();
+    final LongAdder expired = new LongAdder();
+    final LongAdder cancelled = new LongAdder();
+
+    private final long startedNanos = System.nanoTime();
+    // Ring of (finished at, latency) pairs of the last WINDOW completed jobs
+    private final long[] finishedAt = new long[WINDOW];
+    private final long[] latency = new long[WINDOW];
+    private int next;
+    private int size;
+
+    synchronized void recordCompletion(long submittedNanos, long finishedNanos) {
+        finishedAt[next] = finishedNanos;
+        latency[next] = finishedNanos - submittedNanos;
+        next = (next + 1) % WINDOW;
+        size = Math.min(size + 1, WINDOW);
+    }
+
+    /**
+     * The metrics as a JSON object, with the queue figures supplied by the server.
+     */
+    String toJson(int running, int queued, int queueCapacity, int workers) {
+        long now = System.nanoTime();
+        long[] latencies;
+        int recent = 0;
+        synchronized (this) {
+            latencies = Arrays.copyOf(latency, size);
+            for (int i = 0; i < size; i++) {
+                if (now - finishedAt[i] <= RATE_WINDOW_NANOS) recent++;
+            }
+        }
+        Arrays.sort(latencies);
+        double uptimeSeconds = (now - startedNanos) / 1e9;
+        double rateSeconds = Math.min(uptimeSeconds, RATE_WINDOW_NANOS / 1e9);
+
+        return "{\"uptimeSeconds\":" + Json.number(Math.round(uptimeSeconds * 10) / 10.0)
+                + ",\"workers\":" + workers
+                + ",\"running\":" + running
+                + ",\"queued\":" + queued
+                + ",\"queueCapacity\":" + queueCapacity
+                + ",\"accepted\":" + accepted.sum()
+                + ",\"rejected\":" + rejected.sum()
+                + ",\"completed\":" + completed.sum()
+                + ",\"failed\":" + failed.sum()
+                + ",\"deadlineReached\":" + deadlineReached.sum()
+                + ",\"expired\":" + expired.sum()
+                + ",\"cancelled\":" + cancelled.sum()
+                + ",\"jobsPerSecond\":" + Json.number(rateSeconds > 0 ? Math.round(recent / rateSeconds * 100) / 100.0 : 0.0)
+                + ",\"latencyMillis\":{\"p50\":" + millis(latencies, 50) + ",\"p99\":" + millis(latencies, 99)
+                + ",\"max\":" + millis(latencies, 100) + "}}";
+    }
+
+    /**
+     * Nearest-rank percentile in milliseconds, or {@code null} before the first completion.
+     */
+    private static String millis(long[] sorted, int percent) {
+        if (sorted.length == 0) return "null";
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return Json.number(Math.round(sorted[Math.max(rank, 1) - 1] / 1e5) / 10.0);
+    }
+}
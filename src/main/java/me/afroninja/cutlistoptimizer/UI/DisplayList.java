@@ -0,0 +1,125 @@
+package me.afroninja.cutlistoptimizer.UI;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+
+import java.util.List;
+
+/**
+ * Immutable drawing commands for a result, in unzoomed screen pixels: per sheet its outline, and per
+ * placement a filled and stroked rectangle with a centred label. Built with {@link #of} on a worker thread,
+ * so the FX thread only replays ready-made coordinates, colors and strings. Commands are grouped by sheet.
+ */
+public final class DisplayList {
+    static final double SCALE_FACTOR = 5.0;
+    private static final Color[] COLORS = {Color.web("0xFFB6C1"), Color.web("0x90EE90"), Color.web("0xFFFFE0"),
+            Color.web("0xD8BFD8"), Color.web("0xFFA07A")};
+    private static final double LINE_WIDTH = 2;
+
+    private final OptimizationResult result;
+    private final double[] sheetLength;
+    private final double[] sheetWidth;
+    private final int[] sheetStart;
+    private final double[] x;
+    private final double[] y;
+    private final double[] width;
+    private final double[] height;
+    private final byte[] color;
+    private final String[] label;
+    private final double[] labelX;
+    private final double[] labelY;
+
+    private DisplayList(OptimizationResult result, int sheets, int placements) {
+        this.result = result;
+        sheetLength = new double[sheets];
+        sheetWidth = new double[sheets];
+        sheetStart = new int[sheets + 1];
+        x = new double[placements];
+        y = new double[placements];
+        width = new double[placements];
+        height = new double[placements];
+        color = new byte[placements];
+        label = new String[placements];
+        labelX = new double[placements];
+        labelY = new double[placements];
+    }
+
+    /**
+     * Lays out {@code result}; safe to call off the FX thread as it touches no scene graph node.
+     */
+    public static DisplayList of(OptimizationResult result) {
+        PlacementStore placements = result.getPlacements();
+        List<StockSheet> sheets = result.getUsedSheets();
+        DisplayList list = new DisplayList(result, sheets.size(), placements.size());
+        for (int s = 0; s < sheets.size(); s++) {
+            list.sheetLength[s] = sheets.get(s).getLength() * SCALE_FACTOR;
+            list.sheetWidth[s] = sheets.get(s).getWidth() * SCALE_FACTOR;
+        }
+
+        // Counting sort by sheet, so drawing a sheet touches only its own commands
+        int[] start = list.sheetStart;
+        for (int i = 0; i < placements.size(); i++) {
+            start[placements.getSheet(i) + 1]++;
+        }
+        for (int s = 0; s < sheets.size(); s++) {
+            start[s + 1] += start[s];
+        }
+        int[] next = new int[sheets.size()];
+        System.arraycopy(start, 0, next, 0, sheets.size());
+
+        double fontSize = Font.getDefault().getSize();
+        List<Panel> panelTypes = placements.getPanelTypes();
+        String[] typeLabels = new String[panelTypes.size()];
+        for (int t = 0; t < typeLabels.length; t++) {
+            String text = panelTypes.get(t).getLabel();
+            typeLabels[t] = text == null ? "" : text;
+        }
+        for (int i = 0; i < placements.size(); i++) {
+            int k = next[placements.getSheet(i)]++;
+            double w = placements.getWidth(i) * SCALE_FACTOR;
+            double h = placements.getHeight(i) * SCALE_FACTOR;
+            list.x[k] = placements.getX(i) * SCALE_FACTOR;
+            list.y[k] = placements.getY(i) * SCALE_FACTOR;
+            list.width[k] = w;
+            list.height[k] = h;
+            int type = placements.getPanelType(i);
+            list.color[k] = (byte) (type % COLORS.length);
+            String text = typeLabels[type];
+            list.label[k] = text;
+            list.labelX[k] = list.x[k] + (w / 2) - (fontSize * text.length() / 4);
+            list.labelY[k] = list.y[k] + (h / 2) + (fontSize / 3);
+        }
+        return list;
+    }
+
+    /**
+     * Replays one sheet's commands into {@code gc}, whose transform maps these pixels to the target.
+     */
+    void drawSheet(GraphicsContext gc, int sheet) {
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, sheetLength[sheet], sheetWidth[sheet]);
+        gc.setLineWidth(LINE_WIDTH);
+        gc.setStroke(Color.BLACK);
+        for (int k = sheetStart[sheet]; k < sheetStart[sheet + 1]; k++) {
+            gc.setFill(COLORS[color[k]]);
+            gc.fillRect(x[k], y[k], width[k], height[k]);
+            gc.strokeRect(x[k], y[k], width[k], height[k]);
+        }
+        gc.setFill(Color.BLACK);
+        for (int k = sheetStart[sheet]; k < sheetStart[sheet + 1]; k++) {
+            gc.fillText(label[k], labelX[k], labelY[k]);
+        }
+        gc.setStroke(Color.GRAY);
+        gc.strokeRect(0, 0, sheetLength[sheet], sheetWidth[sheet]);
+    }
+
+    public OptimizationResult getResult() { return result; }
+    public int getSheetCount() { return sheetLength.length; }
+    public double getSheetLength(int sheet) { return sheetLength[sheet]; }
+    public double getSheetWidth(int sheet) { return sheetWidth[sheet]; }
+}
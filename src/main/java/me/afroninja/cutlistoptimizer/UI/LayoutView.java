@@ -0,0 +1,136 @@
+package me.afroninja.cutlistoptimizer.UI;
+
+import javafx.geometry.Orientation;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Scrollable view of a result's cutting pattern. The canvas is only as large as the viewport and draws just
+ * the sheets that intersect it; each sheet is rendered once into an image, kept in a small LRU cache, and
+ * repainted only when the result or the zoom changes. Sheets are scaled down to fit the view's width.
+ * <p>
+ * The view draws a {@link DisplayList} prepared off the FX thread rather than the result itself, so showing
+ * a new result costs only the replay of its visible sheets.
+ */
+public class LayoutView extends Region {
+    private static final double CANVAS_PADDING = 10.0;
+    private static final double SHEET_GAP = 20 * DisplayList.SCALE_FACTOR;
+    private static final int IMAGE_CACHE_SIZE = 24;
+    private static final double MAX_IMAGE_SIZE = 4096;
+
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final Map<Integer, Image> sheetImages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Image> eldest) {
+            return size() > IMAGE_CACHE_SIZE;
+        }
+    };
+
+    private DisplayList displayList;
+    private double[] sheetTops = new double[0];
+    private double viewScale = 1.0;
+
+    public LayoutView() {
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.valueProperty().addListener((obs, oldVal, newVal) -> redraw());
+        setOnScroll(event -> scrollBar.setValue(clamp(scrollBar.getValue() - event.getDeltaY())));
+        getChildren().addAll(canvas, scrollBar);
+    }
+
+    public void setDisplayList(DisplayList displayList) {
+        this.displayList = displayList;
+        sheetImages.clear();
+        scrollBar.setValue(0);
+        requestLayout();
+        redraw();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double barWidth = scrollBar.prefWidth(-1);
+        double width = Math.max(getWidth() - barWidth, 0);
+        canvas.setWidth(width);
+        canvas.setHeight(getHeight());
+        scrollBar.resizeRelocate(width, 0, barWidth, getHeight());
+
+        double scale = 1.0;
+        if (displayList != null) {
+            double widest = 0;
+            for (int s = 0; s < displayList.getSheetCount(); s++) {
+                widest = Math.max(widest, displayList.getSheetLength(s));
+            }
+            if (widest > 0 && width > 0) {
+                scale = Math.min(1.0, (width - 2 * CANVAS_PADDING) / widest);
+            }
+        }
+        if (scale != viewScale) {
+            viewScale = scale;
+            sheetImages.clear();
+        }
+        updateLayout();
+        redraw();
+    }
+
+    private void updateLayout() {
+        int sheets = displayList == null ? 0 : displayList.getSheetCount();
+        sheetTops = new double[sheets];
+        double y = CANVAS_PADDING;
+        for (int s = 0; s < sheets; s++) {
+            sheetTops[s] = y;
+            y += displayList.getSheetWidth(s) * viewScale + SHEET_GAP * viewScale;
+        }
+        double contentHeight = y;
+        scrollBar.setMax(Math.max(contentHeight - getHeight(), 0));
+        scrollBar.setVisibleAmount(getHeight());
+        scrollBar.setValue(clamp(scrollBar.getValue()));
+    }
+
+    private void redraw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (displayList == null || sheetTops.length != displayList.getSheetCount()) return;
+
+        double viewTop = scrollBar.getValue();
+        double viewBottom = viewTop + canvas.getHeight();
+        int first = Arrays.binarySearch(sheetTops, viewTop);
+        first = first >= 0 ? first : Math.max(-first - 2, 0);
+        for (int s = first; s < sheetTops.length && sheetTops[s] < viewBottom; s++) {
+            double height = displayList.getSheetWidth(s) * viewScale;
+            if (sheetTops[s] + height < viewTop) continue;
+            gc.drawImage(sheetImage(s), CANVAS_PADDING, sheetTops[s] - viewTop,
+                    displayList.getSheetLength(s) * viewScale, height);
+        }
+    }
+
+    private Image sheetImage(int sheetIndex) {
+        Image image = sheetImages.get(sheetIndex);
+        if (image != null) return image;
+
+        double sheetLength = displayList.getSheetLength(sheetIndex);
+        double sheetWidth = displayList.getSheetWidth(sheetIndex);
+        double scale = Math.min(viewScale, MAX_IMAGE_SIZE / Math.max(sheetLength, sheetWidth));
+        Canvas sheetCanvas = new Canvas(Math.ceil(sheetLength * scale), Math.ceil(sheetWidth * scale));
+        GraphicsContext gc = sheetCanvas.getGraphicsContext2D();
+        gc.scale(scale, scale);
+        displayList.drawSheet(gc, sheetIndex);
+
+        image = sheetCanvas.snapshot(new SnapshotParameters(), null);
+        sheetImages.put(sheetIndex, image);
+        return image;
+    }
+
+    private double clamp(double value) {
+        return Math.max(scrollBar.getMin(), Math.min(value, scrollBar.getMax()));
+    }
+}
@@ -3,22 +3,50 @@ package me.afroninja.cutlistoptimizer.UI;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.Separator;
 import me.afroninja.cutlistoptimizer.Model.*;
+import me.afroninja.cutlistoptimizer.Optimization.LowerBounds;
 
 import java.util.List;
+import java.util.Map;
 
 public class StatisticsUpdater {
     public static void updateStatistics(TextArea statistics, List<StockSheet> usedSheets, List<Panel> unplacedPanels,
                                         int currentSheetIndex, int totalPanels, double usedArea, double totalArea,
-                                        int totalCuts) {
+                                        int totalCuts, double lowerBoundArea, Map<String, StrategyMetrics> performance) {
+        int unplacedCount = 0;
+        for (Panel panel : unplacedPanels) {
+            unplacedCount += panel.getQuantity();
+        }
+
         statistics.clear();
         statistics.appendText("Global Statistics\n");
         statistics.appendText(new Separator().toString() + "\n");
         statistics.appendText(String.format("Total Panels: %d\n", totalPanels));
-        statistics.appendText(String.format("Unplaced Panels: %d\n", unplacedPanels.size()));
+        statistics.appendText(String.format("Unplaced Panels: %d\n", unplacedCount));
         statistics.appendText(String.format("Total Area: %.1f sq units\n", totalArea));
         statistics.appendText(String.format("Used Area: %.1f sq units\n", usedArea));
         statistics.appendText(String.format("Waste Percentage: %.1f%%\n", (totalArea - usedArea) / totalArea * 100));
         statistics.appendText(String.format("Total Cuts: %d\n", totalCuts));
+        if (lowerBoundArea > 0 && unplacedCount == 0 && totalArea > 0) {
+            double gap = LowerBounds.gapPercentage(totalArea, lowerBoundArea);
+            statistics.appendText(String.format("Waste Lower Bound: %.1f%%\n", (lowerBoundArea - usedArea) / lowerBoundArea * 100));
+            statistics.appendText(gap < 1e-6 ? "Optimality Gap: 0% (proven optimal)\n"
+                    : String.format("Optimality Gap: %.1f%%\n", gap));
+        }
+
+        if (!performance.isEmpty()) {
+            statistics.appendText("\nPerformance\n");
+            statistics.appendText(new Separator().toString() + "\n");
+            for (Map.Entry<String, StrategyMetrics> entry : performance.entrySet()) {
+                StrategyMetrics metrics = entry.getValue();
+                statistics.appendText(String.format("%s: %.1f ms wall, %s CPU, %s allocated\n", entry.getKey(),
+                        metrics.getWallNanos() / 1e6,
+                        metrics.getCpuNanos() < 0 ? "n/a" : String.format("%.1f ms", metrics.getCpuNanos() / 1e6),
+                        metrics.getAllocatedBytes() < 0 ? "n/a" : String.format("%.1f MB", metrics.getAllocatedBytes() / 1e6)));
+                statistics.appendText(String.format("  %d placements (%.0f/s), peak %d free rectangles, %d fit tests\n",
+                        metrics.getPlacements(), metrics.getPlacementsPerSecond(), metrics.getPeakFreeRectangles(),
+                        metrics.getFitTests()));
+            }
+        }
 
         if (!usedSheets.isEmpty()) {
             statistics.appendText("\nSheet Statistics\n");
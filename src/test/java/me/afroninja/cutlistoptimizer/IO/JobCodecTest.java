@@ -0,0 +1,114 @@
+package me.afroninja.cutlistoptimizer.IO;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.SearchBudget;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JobCodecTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        OptimizationJob job = sample();
+        Path file = directory.resolve("sample.cljob");
+        Files.write(file, encode(job));
+
+        assertSameJob(job, JobCodec.map(file));
+    }
+
+    @Test
+    void readsVersionOneFilesWithoutCosts() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x434C4A42);
+        out.writeInt(1);
+        out.writeDouble(0.125);
+        out.writeInt(0);
+        out.writeLong(0);
+        out.writeLong(0);
+        out.writeInt(0);
+        out.writeInt(1);
+        out.writeDouble(24);
+        out.writeDouble(12);
+        out.writeInt(4);
+        ResultCodec.writeLabel("shelf", out);
+        out.writeInt(1);
+        out.writeDouble(96);
+        out.writeDouble(48);
+        out.writeInt(10);
+        ResultCodec.writeLabel("ply", out);
+
+        OptimizationJob job = JobCodec.decode(ByteBuffer.wrap(bytes.toByteArray()));
+
+        assertEquals(0.125, job.getCutThickness());
+        assertEquals("shelf", job.getPanels().get(0).getLabel());
+        assertEquals(4, job.getPanels().get(0).getQuantity());
+        StockSheet stock = job.getStockSheets().get(0);
+        assertEquals(List.of(96.0, 48.0, 10.0, 0.0), List.of(stock.getLength(), stock.getWidth(),
+                (double) stock.getQuantity(), stock.getCost()));
+        assertEquals("ply", stock.getLabel());
+    }
+
+    @Test
+    void rejectsOtherFilesAndTruncatedOnes() throws IOException {
+        byte[] bytes = encode(sample());
+        byte[] wrongMagic = bytes.clone();
+        wrongMagic[3] ^= 1;
+
+        assertThrows(IOException.class, () -> JobCodec.decode(ByteBuffer.wrap(wrongMagic)));
+        for (int length : new int[] {4, 20, bytes.length / 2, bytes.length - 1}) {
+            assertThrows(IOException.class, () -> JobCodec.decode(ByteBuffer.wrap(Arrays.copyOf(bytes, length))));
+        }
+    }
+
+    private static OptimizationJob sample() {
+        return new OptimizationJob(
+                List.of(new Panel(24, 12, 4, "shelf, top"), new Panel(30.5, 15.25, 2, "door ü")),
+                List.of(new StockSheet(96, 48, 10, "ply", 42.5), new StockSheet(60, 30, 2, "offcut")),
+                0.125, List.of("MaxRects", "Skyline"), new SearchBudget(1500, 2000, 8));
+    }
+
+    private static void assertSameJob(OptimizationJob expected, OptimizationJob actual) {
+        assertEquals(expected.getCutThickness(), actual.getCutThickness());
+        assertEquals(expected.getAlgorithms(), actual.getAlgorithms());
+        assertEquals(expected.getSearchBudget(), actual.getSearchBudget());
+        assertEquals(expected.getPanels().size(), actual.getPanels().size());
+        for (int i = 0; i < expected.getPanels().size(); i++) {
+            Panel a = expected.getPanels().get(i);
+            Panel b = actual.getPanels().get(i);
+            assertEquals(List.of(a.getLength(), a.getWidth(), (double) a.getQuantity()),
+                    List.of(b.getLength(), b.getWidth(), (double) b.getQuantity()));
+            assertEquals(a.getLabel(), b.getLabel());
+        }
+        assertEquals(expected.getStockSheets().size(), actual.getStockSheets().size());
+        for (int i = 0; i < expected.getStockSheets().size(); i++) {
+            StockSheet a = expected.getStockSheets().get(i);
+            StockSheet b = actual.getStockSheets().get(i);
+            assertEquals(List.of(a.getLength(), a.getWidth(), (double) a.getQuantity(), a.getCost()),
+                    List.of(b.getLength(), b.getWidth(), (double) b.getQuantity(), b.getCost()));
+            assertEquals(a.getLabel(), b.getLabel());
+        }
+    }
+
+    private static byte[] encode(OptimizationJob job) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JobCodec.write(job, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+package me.afroninja.cutlistoptimizer.IO;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.Rectangle;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultCodecTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsEveryEncodedField() throws IOException {
+        OptimizationResult result = sample();
+
+        assertSameResult(result, ResultCodec.read(new DataInputStream(new ByteArrayInputStream(encode(result)))));
+    }
+
+    @Test
+    void mapsWhatWasWritten() throws IOException {
+        OptimizationResult result = sample();
+        Path file = directory.resolve("sample.clresult");
+        Files.write(file, encode(result));
+
+        assertSameResult(result, ResultCodec.map(file));
+    }
+
+    @Test
+    void rejectsOtherFilesAndTruncatedOnes() throws IOException {
+        byte[] bytes = encode(sample());
+        byte[] wrongMagic = bytes.clone();
+        wrongMagic[0] ^= 1;
+
+        assertThrows(IOException.class, () -> ResultCodec.read(stream(wrongMagic)));
+        for (int length : new int[] {4, 12, bytes.length / 2, bytes.length - 1}) {
+            assertThrows(IOException.class, () -> ResultCodec.read(stream(Arrays.copyOf(bytes, length))));
+        }
+    }
+
+    private static OptimizationResult sample() {
+        List<Panel> types = List.of(new Panel(30, 20, 2, "side"), new Panel(12.5, 8, 1, "shelf ü"));
+        PlacementStore placements = new PlacementStore(types);
+        placements.add(0, 0, 30_000_000, 20_000_000, 1, 0, false);
+        placements.add(0, 0, 8_000_000, 12_500_000, 0, 1, true);
+        placements.add(30_000_000, 0, 30_000_000, 20_000_000, 0, 0, false);
+        OptimizationResult result = new OptimizationResult();
+        result.getUsedSheets().add(new StockSheet(100, 50, 1, "ply", 12.5));
+        result.getUsedSheets().add(new StockSheet(60, 40, 1, "offcut"));
+        result.setPlacements(placements);
+        result.getRectangles().add(new Rectangle(60, 0, 40, 50, 0));
+        result.getUnplacedPanels().add(new Panel(200, 200, 3, "too big"));
+        result.setUsedArea(1300);
+        result.setTotalArea(7400);
+        result.setTotalCuts(6);
+        result.setWastePercentage(82.4);
+        result.setLowerBoundArea(5000);
+        result.setProvenOptimal(true);
+        return result;
+    }
+
+    private static void assertSameResult(OptimizationResult expected, OptimizationResult actual) {
+        assertEquals(expected.getUsedSheets().size(), actual.getUsedSheets().size());
+        for (int sheet = 0; sheet < expected.getUsedSheets().size(); sheet++) {
+            StockSheet a = expected.getUsedSheets().get(sheet);
+            StockSheet b = actual.getUsedSheets().get(sheet);
+            assertEquals(a.getLength(), b.getLength());
+            assertEquals(a.getWidth(), b.getWidth());
+            assertEquals(a.getLabel(), b.getLabel());
+            assertEquals(a.getCost(), b.getCost());
+        }
+        // Placements come back grouped by sheet, so compare them as sets of descriptions
+        assertEquals(describe(expected.getPlacements()), describe(actual.getPlacements()));
+        assertEquals(expected.getRectangles().size(), actual.getRectangles().size());
+        Rectangle free = actual.getRectangles().get(0);
+        assertEquals(List.of(60.0, 0.0, 40.0, 50.0, 0.0), List.of(free.getX(), free.getY(), free.getWidth(),
+                free.getHeight(), (double) free.getSheet()));
+        assertEquals(1, actual.getUnplacedPanels().size());
+        assertEquals("too big", actual.getUnplacedPanels().get(0).getLabel());
+        assertEquals(3, actual.getUnplacedPanels().get(0).getQuantity());
+        assertEquals(expected.getUsedArea(), actual.getUsedArea());
+        assertEquals(expected.getTotalArea(), actual.getTotalArea());
+        assertEquals(expected.getTotalCuts(), actual.getTotalCuts());
+        assertEquals(expected.getWastePercentage(), actual.getWastePercentage());
+        assertEquals(expected.getLowerBoundArea(), actual.getLowerBoundArea());
+        assertEquals(expected.isProvenOptimal(), actual.isProvenOptimal());
+    }
+
+    private static List<String> describe(PlacementStore placements) {
+        String[] lines = new String[placements.size()];
+        for (int i = 0; i < placements.size(); i++) {
+            Panel type = placements.getPanelTypes().get(placements.getPanelType(i));
+            lines[i] = placements.getSheet(i) + " " + placements.getXMicros(i) + "," + placements.getYMicros(i) + " "
+                    + placements.getWidthMicros(i) + "x" + placements.getHeightMicros(i) + " " + type.getLabel()
+                    + (placements.isRotated(i) ? " rotated" : "");
+        }
+        Arrays.sort(lines);
+        return List.of(lines);
+    }
+
+    private static byte[] encode(OptimizationResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ResultCodec.write(result, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream stream(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,101 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExactGuillotineAlgorithmTest {
+    private static final long TIME_LIMIT_MILLIS = 10_000;
+    private static final List<StockSheet> STOCK = List.of(new StockSheet(100, 100, 30, "s"));
+
+    @Test
+    void provesOptimumTheLowerBoundMisses() {
+        // The area bound asks for 3 sheets, but no guillotine layout fits these on fewer than 4
+        List<Panel> panels = List.of(new Panel(60, 60, 3, "a"), new Panel(30, 45, 5, "b"),
+                new Panel(45, 25, 6, "c"), new Panel(70, 20, 4, "d"));
+
+        OptimizationResult result = pack(new ExactGuillotineAlgorithm(TIME_LIMIT_MILLIS), panels);
+
+        assertFalse(LowerBounds.of(panels, STOCK).isReachedBy(result));
+        assertTrue(result.isProvenOptimal());
+        assertEquals(4, result.getUsedSheets().size());
+        assertValid(result, panels);
+    }
+
+    @Test
+    void doesNotClaimProofWhenTheClockRunsOut() {
+        List<Panel> panels = List.of(new Panel(60, 60, 3, "a"), new Panel(30, 45, 5, "b"),
+                new Panel(45, 25, 6, "c"), new Panel(70, 20, 4, "d"));
+
+        OptimizationResult result = pack(new ExactGuillotineAlgorithm(0), panels);
+
+        assertFalse(result.isProvenOptimal());
+        assertValid(result, panels);
+    }
+
+    @Test
+    void provesResultsThatReachTheLowerBound() {
+        List<Panel> panels = List.of(new Panel(50, 50, 4, "a"));
+
+        OptimizationResult result = pack(new ExactGuillotineAlgorithm(0), panels);
+
+        assertTrue(result.isProvenOptimal());
+        assertEquals(1, result.getUsedSheets().size());
+    }
+
+    @Test
+    void keepsTheBlocksOfLayoutsTheGreedyStrategiesMiss() {
+        // Both need a block that only Pareto-dominance pruning could wrongly drop; the greedy incumbents use
+        // one sheet more
+        List<Panel> twoSheets = List.of(new Panel(25, 45, 4, "a"), new Panel(80, 35, 4, "b"));
+        List<Panel> oneSheet = List.of(new Panel(35, 45, 4, "a"), new Panel(65, 20, 2, "b"));
+
+        OptimizationResult first = pack(new ExactGuillotineAlgorithm(TIME_LIMIT_MILLIS), twoSheets);
+        OptimizationResult second = pack(new ExactGuillotineAlgorithm(TIME_LIMIT_MILLIS), oneSheet);
+
+        assertEquals(3, pack(new ExactGuillotineAlgorithm(0), twoSheets).getUsedSheets().size());
+        assertEquals(2, first.getUsedSheets().size());
+        assertTrue(first.isProvenOptimal());
+        assertValid(first, twoSheets);
+        assertEquals(2, pack(new ExactGuillotineAlgorithm(0), oneSheet).getUsedSheets().size());
+        assertEquals(1, second.getUsedSheets().size());
+        assertValid(second, oneSheet);
+    }
+
+    private static OptimizationResult pack(ExactGuillotineAlgorithm algorithm, List<Panel> panels) {
+        return algorithm.pack(new ArrayList<>(panels), new ArrayList<>(STOCK), 0);
+    }
+
+    /**
+     * Every copy placed once, inside its sheet, with no two placements overlapping.
+     */
+    private static void assertValid(OptimizationResult result, List<Panel> panels) {
+        PlacementStore placements = result.getPlacements();
+        int demand = 0;
+        for (Panel panel : panels) demand += panel.getQuantity();
+        assertEquals(demand, placements.size());
+        assertTrue(result.getUnplacedPanels().isEmpty());
+        for (int i = 0; i < placements.size(); i++) {
+            StockSheet sheet = result.getUsedSheets().get(placements.getSheet(i));
+            assertTrue(placements.getX(i) >= 0 && placements.getX(i) + placements.getWidth(i) <= sheet.getLength());
+            assertTrue(placements.getY(i) >= 0 && placements.getY(i) + placements.getHeight(i) <= sheet.getWidth());
+            for (int j = 0; j < i; j++) {
+                if (placements.getSheet(i) != placements.getSheet(j)) continue;
+                boolean apart = placements.getX(i) + placements.getWidth(i) <= placements.getX(j)
+                        || placements.getX(j) + placements.getWidth(j) <= placements.getX(i)
+                        || placements.getY(i) + placements.getHeight(i) <= placements.getY(j)
+                        || placements.getY(j) + placements.getHeight(j) <= placements.getY(i);
+                assertTrue(apart, "placements " + i + " and " + j + " overlap");
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FreeRectangleIndexTest {
+    @Test
+    void answersLikeAScanThroughInsertsAndRemoves() {
+        Random random = new Random(7);
+        FreeRectangleIndex index = new FreeRectangleIndex(4);
+        List<Integer> live = new ArrayList<>();
+        for (int step = 0; step < 5000; step++) {
+            if (live.isEmpty() || random.nextInt(3) > 0) {
+                // Few distinct sizes, so ties in width, height and leftover come up often
+                live.add(index.insert(random.nextInt(1000), random.nextInt(1000), 1 + random.nextInt(40),
+                        1 + random.nextInt(40), random.nextInt(3)));
+            } else {
+                index.remove(live.remove(random.nextInt(live.size())));
+            }
+            assertEquals(live.size(), index.size());
+
+            long minWidth = 1 + random.nextInt(45);
+            long minHeight = 1 + random.nextInt(45);
+            assertEquals(scanBestFit(index, live, minWidth, minHeight), index.findBestFit(minWidth, minHeight));
+            assertEquals(scanTightestFit(index, live, minWidth, minHeight), index.findTightestFit(minWidth, minHeight));
+        }
+        assertEquals(live.size(), index.toRectangles().size());
+    }
+
+    @Test
+    void tightestFitWeighsHeightAsWellAsWidth() {
+        FreeRectangleIndex index = new FreeRectangleIndex();
+        int tall = index.insert(0, 0, 11, 1010, 0);
+        int snug = index.insert(0, 0, 12, 10, 0);
+
+        assertEquals(tall, index.findBestFit(10, 10));
+        assertEquals(snug, index.findTightestFit(10, 10));
+        assertEquals(FreeRectangleIndex.NONE, index.findTightestFit(13, 10));
+    }
+
+    @Test
+    void reusesRemovedSlots() {
+        FreeRectangleIndex index = new FreeRectangleIndex(4);
+        int first = index.insert(0, 0, 10, 10, 0);
+        int second = index.insert(10, 0, 20, 10, 0);
+        index.insert(30, 0, 30, 10, 0);
+        index.remove(first);
+        index.remove(second);
+
+        Set<Integer> reused = new HashSet<>(List.of(index.insert(0, 0, 5, 5, 1), index.insert(5, 0, 5, 5, 1)));
+
+        assertEquals(Set.of(first, second), reused);
+        assertEquals(3, index.size());
+        assertEquals(3, index.getPeakSize());
+        assertFalse(index.isEmpty());
+        int fresh = index.insert(0, 5, 5, 5, 1);
+        assertTrue(fresh != first && fresh != second);
+        assertEquals(4, index.getPeakSize());
+    }
+
+    /**
+     * Narrowest fit, then shortest, then the lowest handle, as the treap orders its nodes.
+     */
+    private static int scanBestFit(FreeRectangleIndex index, List<Integer> live, long minWidth, long minHeight) {
+        int best = FreeRectangleIndex.NONE;
+        for (int node : live) {
+            if (!fits(index, node, minWidth, minHeight)) continue;
+            if (best == FreeRectangleIndex.NONE || compare(index, node, best) < 0) best = node;
+        }
+        return best;
+    }
+
+    /**
+     * Least leftover width plus height, ties broken like {@link #scanBestFit}.
+     */
+    private static int scanTightestFit(FreeRectangleIndex index, List<Integer> live, long minWidth, long minHeight) {
+        int best = FreeRectangleIndex.NONE;
+        for (int node : live) {
+            if (!fits(index, node, minWidth, minHeight)) continue;
+            if (best == FreeRectangleIndex.NONE) {
+                best = node;
+                continue;
+            }
+            long leftover = index.getWidth(node) + index.getHeight(node);
+            long bestLeftover = index.getWidth(best) + index.getHeight(best);
+            if (leftover < bestLeftover || (leftover == bestLeftover && compare(index, node, best) < 0)) best = node;
+        }
+        return best;
+    }
+
+    private static boolean fits(FreeRectangleIndex index, int node, long minWidth, long minHeight) {
+        return index.getWidth(node) >= minWidth && index.getHeight(node) >= minHeight;
+    }
+
+    private static int compare(FreeRectangleIndex index, int a, int b) {
+        if (index.getWidth(a) != index.getWidth(b)) return Long.compare(index.getWidth(a), index.getWidth(b));
+        if (index.getHeight(a) != index.getHeight(b)) return Long.compare(index.getHeight(a), index.getHeight(b));
+        return Integer.compare(a, b);
+    }
+}
@@ -0,0 +1,99 @@
+package me.afroninja.cutlistoptimizer.Optimization;
+
+import me.afroninja.cutlistoptimizer.Model.OptimizationJob;
+import me.afroninja.cutlistoptimizer.Model.OptimizationResult;
+import me.afroninja.cutlistoptimizer.Model.Panel;
+import me.afroninja.cutlistoptimizer.Model.PlacementStore;
+import me.afroninja.cutlistoptimizer.Model.StockSheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalOptimizerTest {
+    // Whole sheets of "a", one sheet of "b" and a three-quarter sheet of "c"
+    private static final List<Panel> PANELS = List.of(new Panel(100, 100, 2, "a"), new Panel(50, 100, 2, "b"),
+            new Panel(50, 50, 3, "c"));
+
+    @Test
+    void addedCopiesOnlyReleaseTheLeastFilledSheet() {
+        assertKeepsSheetsWithout("c", List.of(new Panel(100, 100, 2, "a"), new Panel(50, 100, 2, "b"),
+                new Panel(50, 50, 4, "c")));
+    }
+
+    @Test
+    void fewerCopiesOnlyReleaseTheSheetsHoldingThem() {
+        assertKeepsSheetsWithout("b", List.of(new Panel(100, 100, 2, "a"), new Panel(50, 100, 1, "b"),
+                new Panel(50, 50, 3, "c")));
+    }
+
+    @Test
+    void removedTypesOnlyReleaseTheSheetsHoldingThem() {
+        assertKeepsSheetsWithout("a", List.of(new Panel(50, 100, 2, "b"), new Panel(50, 50, 3, "c")));
+    }
+
+    /**
+     * Updates the packed {@link #PANELS} to {@code editedPanels} and checks that every sheet without a copy
+     * of the {@code edited} type comes first in the new result, in its old order and exactly as it was, and
+     * that the new demand is met.
+     */
+    private static void assertKeepsSheetsWithout(String edited, List<Panel> editedPanels) {
+        // A tolerance no repack can exceed, so every update stays incremental
+        IncrementalOptimizer optimizer = new IncrementalOptimizer(new PackingEngine(), 100.0);
+        OptimizationResult before = optimizer.optimizeFully(job(PANELS), OptimizationListener.NONE);
+        List<List<String>> oldSheets = sheets(before);
+        List<List<String>> untouched = new ArrayList<>();
+        List<StockSheet> untouchedStock = new ArrayList<>();
+        for (int sheet = 0; sheet < oldSheets.size(); sheet++) {
+            if (oldSheets.get(sheet).stream().noneMatch(placement -> placement.endsWith(" " + edited))) {
+                untouched.add(oldSheets.get(sheet));
+                untouchedStock.add(before.getUsedSheets().get(sheet));
+            }
+        }
+        assertTrue(untouched.size() < oldSheets.size());
+
+        OptimizationResult after = optimizer.update(job(editedPanels), OptimizationListener.NONE);
+
+        List<List<String>> newSheets = sheets(after);
+        assertEquals(untouched, newSheets.subList(0, untouched.size()));
+        for (int sheet = 0; sheet < untouched.size(); sheet++) {
+            // Kept, not packed again the same way: a repack would have cut it from a new stock row
+            assertSame(untouchedStock.get(sheet), after.getUsedSheets().get(sheet));
+        }
+        assertTrue(after.getUnplacedPanels().isEmpty());
+        Map<String, Integer> demand = new HashMap<>();
+        for (Panel panel : editedPanels) demand.merge(panel.getLabel(), panel.getQuantity(), Integer::sum);
+        Map<String, Integer> placed = new HashMap<>();
+        PlacementStore placements = after.getPlacements();
+        for (int i = 0; i < placements.size(); i++) placed.merge(placements.getPanel(i).getLabel(), 1, Integer::sum);
+        assertEquals(demand, placed);
+    }
+
+    private static OptimizationJob job(List<Panel> panels) {
+        return new OptimizationJob(panels, List.of(new StockSheet(100, 100, 10, "s")), 0,
+                List.of(PackingEngine.GUILLOTINE));
+    }
+
+    /**
+     * Each sheet's placements as sorted descriptions, so sheets compare by content.
+     */
+    private static List<List<String>> sheets(OptimizationResult result) {
+        List<List<String>> sheets = new ArrayList<>();
+        for (int sheet = 0; sheet < result.getUsedSheets().size(); sheet++) sheets.add(new ArrayList<>());
+        PlacementStore placements = result.getPlacements();
+        for (int i = 0; i < placements.size(); i++) {
+            sheets.get(placements.getSheet(i)).add(placements.getXMicros(i) + "," + placements.getYMicros(i) + " "
+                    + placements.getWidthMicros(i) + "x" + placements.getHeightMicros(i)
+                    + (placements.isRotated(i) ? " rotated " : " ") + placements.getPanel(i).getLabel());
+        }
+        for (List<String> sheet : sheets) Collections.sort(sheet);
+        return sheets;
+    }
+}